@@ -0,0 +1,105 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+// Классы приложения лежат в пакете по умолчанию, а JMH не допускает бенчмарки
+// без пакета; из именованного пакета такие классы доступны только через
+// MethodHandle. Поля static final, поэтому JIT встраивает вызовы.
+final class AlgorithmHandles {
+    static final Class<?> ALGORITHM = load("Algorithm");
+    static final Class<?> FUNCTION_TYPE = load("FunctionType");
+    static final Class<?> POINT_SET = load("PointSet");
+    static final Class<?> SMALL_MATRIX = load("SmallMatrix");
+    static final Class<?> POLYNOMIAL_SOLVER = load("PolynomialSolver");
+    static final Class<?> SOLVER_METHOD = load("PolynomialSolver$Method");
+    static final Class<?> SOLUTION = load("PolynomialSolver$Solution");
+
+    static final MethodHandle NEW_POINT_SET = constructor(POINT_SET,
+            MethodType.methodType(void.class, double[].class, double[].class),
+            MethodType.methodType(Object.class, double[].class, double[].class));
+
+    static final MethodHandle APPROXIMATE = findStatic("approximate",
+            MethodType.methodType(double[].class, FUNCTION_TYPE, POINT_SET),
+            MethodType.methodType(double[].class, Object.class, Object.class));
+
+    static final MethodHandle FIND_BEST_FIT = findStatic("findBestFit",
+            MethodType.methodType(FUNCTION_TYPE, POINT_SET),
+            MethodType.methodType(Object.class, Object.class));
+
+    static final MethodHandle CALCULATE_DEVIATION = findStatic("calculateDeviation",
+            MethodType.methodType(double.class, FUNCTION_TYPE, POINT_SET, double[].class),
+            MethodType.methodType(double.class, Object.class, Object.class, double[].class));
+
+    static final MethodHandle CALCULATE_R2 = findStatic("calculateR2",
+            MethodType.methodType(double.class, FUNCTION_TYPE, POINT_SET, double[].class),
+            MethodType.methodType(double.class, Object.class, Object.class, double[].class));
+
+    static final MethodHandle CALCULATE_PEARSON_CORRELATION = findStatic("calculatePearsonCorrelation",
+            MethodType.methodType(double.class, POINT_SET),
+            MethodType.methodType(double.class, Object.class));
+
+    static final MethodHandle SOLVE_BATCH = findStatic(SMALL_MATRIX, "solveBatch",
+            MethodType.methodType(int.class, double[].class, double[].class, int.class, int.class,
+                    double[].class, double[].class, double[].class),
+            MethodType.methodType(int.class, double[].class, double[].class, int.class, int.class,
+                    double[].class, double[].class, double[].class));
+
+    static final MethodHandle NEW_POLYNOMIAL_SOLVER = constructor(POLYNOMIAL_SOLVER,
+            MethodType.methodType(void.class, SOLVER_METHOD, boolean.class),
+            MethodType.methodType(Object.class, Object.class, boolean.class));
+
+    static final MethodHandle POLYNOMIAL_FIT = findVirtual(POLYNOMIAL_SOLVER, "fit",
+            MethodType.methodType(SOLUTION, POINT_SET, int.class),
+            MethodType.methodType(Object.class, Object.class, Object.class, int.class));
+
+    private AlgorithmHandles() {
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object functionType(String name) {
+        return Enum.valueOf((Class) FUNCTION_TYPE, name);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object solverMethod(String name) {
+        return Enum.valueOf((Class) SOLVER_METHOD, name);
+    }
+
+    private static Class<?> load(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle constructor(Class<?> owner, MethodType type, MethodType erased) {
+        try {
+            return MethodHandles.publicLookup().findConstructor(owner, type).asType(erased);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle findStatic(String name, MethodType type, MethodType erased) {
+        return findStatic(ALGORITHM, name, type, erased);
+    }
+
+    private static MethodHandle findStatic(Class<?> owner, String name, MethodType type, MethodType erased) {
+        try {
+            return MethodHandles.publicLookup().findStatic(owner, name, type).asType(erased);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle findVirtual(Class<?> owner, String name, MethodType type, MethodType erased) {
+        try {
+            return MethodHandles.publicLookup().findVirtual(owner, name, type).asType(erased);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
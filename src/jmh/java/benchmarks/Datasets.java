@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+
+// Наборы точек y = 2·x^1.3 + шум с положительными x и y, чтобы все модели,
+// включая EXP, LOG и POWER, работали на одних и тех же данных.
+public enum Datasets {
+    // x равномерно на [1, 10]
+    UNIFORM {
+        @Override
+        double x(SplittableRandom random) {
+            return 1 + 9 * random.nextDouble();
+        }
+    },
+    // Большое смещение: x ≈ 10^6 с разбросом 1, степенные суммы до x^6 ≈ 10^36
+    LARGE_OFFSET {
+        @Override
+        double x(SplittableRandom random) {
+            return 1e6 + random.nextDouble();
+        }
+    },
+    // x распределены по 12 порядкам величины
+    LOG_UNIFORM {
+        @Override
+        double x(SplittableRandom random) {
+            return Math.pow(10, -6 + 12 * random.nextDouble());
+        }
+    };
+
+    abstract double x(SplittableRandom random);
+
+    double[][] generate(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            double x = x(random);
+            xs[i] = x;
+            ys[i] = 2 * Math.pow(x, 1.3) * (1 + 0.05 * (random.nextDouble() - 0.5));
+        }
+        return new double[][]{xs, ys};
+    }
+}
@@ -0,0 +1,66 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+// 10^8 точек занимают 1.6 ГБ
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class FitBenchmark {
+
+    @Param({"8", "1000", "1000000", "100000000"})
+    public int size;
+
+    @Param({"UNIFORM", "LARGE_OFFSET", "LOG_UNIFORM"})
+    public Datasets distribution;
+
+    @Param({"LINEAR", "POLY2", "POLY3", "EXP", "LOG", "POWER", "BEST"})
+    public String type;
+
+    private Object points;
+    private Object functionType;
+    private Object fittedType;
+    private double[] coeffs;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        double[][] columns = distribution.generate(size, 42);
+        points = AlgorithmHandles.NEW_POINT_SET.invokeExact(columns[0], columns[1]);
+        functionType = AlgorithmHandles.functionType(type);
+        fittedType = "BEST".equals(type)
+                ? AlgorithmHandles.FIND_BEST_FIT.invokeExact(points)
+                : functionType;
+        coeffs = (double[]) AlgorithmHandles.APPROXIMATE.invokeExact(functionType, points);
+    }
+
+    @Benchmark
+    public double[] approximate() throws Throwable {
+        return (double[]) AlgorithmHandles.APPROXIMATE.invokeExact(functionType, points);
+    }
+
+    @Benchmark
+    public double calculateDeviation() throws Throwable {
+        return (double) AlgorithmHandles.CALCULATE_DEVIATION.invokeExact(fittedType, points, coeffs);
+    }
+
+    @Benchmark
+    public double calculateR2() throws Throwable {
+        return (double) AlgorithmHandles.CALCULATE_R2.invokeExact(fittedType, points, coeffs);
+    }
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Операции, не зависящие от типа функции
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class SelectionBenchmark {
+
+    @Param({"8", "1000", "1000000", "100000000"})
+    public int size;
+
+    @Param({"UNIFORM", "LARGE_OFFSET", "LOG_UNIFORM"})
+    public Datasets distribution;
+
+    private Object points;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        double[][] columns = distribution.generate(size, 42);
+        points = AlgorithmHandles.NEW_POINT_SET.invokeExact(columns[0], columns[1]);
+    }
+
+    @Benchmark
+    public Object findBestFit() throws Throwable {
+        return AlgorithmHandles.FIND_BEST_FIT.invokeExact(points);
+    }
+
+    @Benchmark
+    public double calculatePearsonCorrelation() throws Throwable {
+        return (double) AlgorithmHandles.CALCULATE_PEARSON_CORRELATION.invokeExact(points);
+    }
+}
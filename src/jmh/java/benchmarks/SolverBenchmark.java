@@ -0,0 +1,92 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// solveBatch решает одну нормальную систему по готовым суммам Σx^k и не портит входные
+// массивы, поэтому копии не нужны. polynomialCholesky и polynomialQr — подбор полинома
+// PolynomialSolver целиком, вместе с проходом по точкам.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolverBenchmark {
+
+    // Размер нормальной системы: 3 для POLY2, 4 для POLY3
+    @Param({"3", "4"})
+    public int m;
+
+    @Param({"UNIFORM", "LARGE_OFFSET", "LOG_UNIFORM"})
+    public Datasets distribution;
+
+    private double[] matrix;
+    private double[] rhs;
+    private double[] solution;
+    private double[] l;
+    private double[] scale;
+
+    private Object points;
+    private Object cholesky;
+    private Object qr;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        double[][] columns = distribution.generate(1000, 42);
+        double[] xs = columns[0];
+        double[] ys = columns[1];
+        double[] powerSums = new double[2 * m - 1];
+        rhs = new double[m];
+        for (int p = 0; p < xs.length; p++) {
+            double power = 1;
+            for (int k = 0; k < powerSums.length; k++) {
+                powerSums[k] += power;
+                if (k < m) {
+                    rhs[k] += ys[p] * power;
+                }
+                power *= xs[p];
+            }
+        }
+        matrix = new double[m * m];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                matrix[i * m + j] = powerSums[i + j];
+            }
+        }
+        solution = new double[m];
+        l = new double[m * m];
+        scale = new double[m];
+
+        points = AlgorithmHandles.NEW_POINT_SET.invokeExact(xs, ys);
+        cholesky = AlgorithmHandles.NEW_POLYNOMIAL_SOLVER.invokeExact(AlgorithmHandles.solverMethod("CHOLESKY"), true);
+        qr = AlgorithmHandles.NEW_POLYNOMIAL_SOLVER.invokeExact(AlgorithmHandles.solverMethod("QR"), true);
+    }
+
+    @Benchmark
+    public int solveBatch() throws Throwable {
+        return (int) AlgorithmHandles.SOLVE_BATCH.invokeExact(matrix, rhs, m, 1, solution, l, scale);
+    }
+
+    @Benchmark
+    public Object polynomialCholesky() throws Throwable {
+        return AlgorithmHandles.POLYNOMIAL_FIT.invokeExact(cholesky, points, m - 1);
+    }
+
+    @Benchmark
+    public Object polynomialQr() throws Throwable {
+        return AlgorithmHandles.POLYNOMIAL_FIT.invokeExact(qr, points, m - 1);
+    }
+}
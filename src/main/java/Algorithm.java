@@ -1,9 +1,12 @@
-import java.awt.Point;
 import java.util.List;
 
 public class Algorithm {
 
     public static double[] approximate(FunctionType type, List<MyPoint> points) {
+        return approximate(type, PointSet.fromList(points));
+    }
+
+    public static double[] approximate(FunctionType type, PointSet points) {
         switch (type) {
             case LINEAR:
                 return linearApproximation(points);
@@ -24,128 +27,310 @@ public class Algorithm {
         }
     }
 
-    private static double[] linearApproximation(List<MyPoint> points) {
+    private static double[] linearApproximation(PointSet points) {
         int n = points.size();
-        double sumX = 0, sumY = 0, sumXY = 0, sumX2 = 0;
-
-        for (MyPoint point : points) {
-            double x = point.getX();
-            double y = point.getY();
-            sumX += x;
-            sumY += y;
-            sumXY += x * y;
-            sumX2 += x * x;
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        // Суммы относительно первой точки, как в FitStatistics
+        double shiftX = n > 0 ? xs[0] : 0;
+        double shiftY = n > 0 ? ys[0] : 0;
+        double sumT = 0, sumU = 0, sumTU = 0, sumT2 = 0;
+
+        for (int i = 0; i < n; i++) {
+            double t = xs[i] - shiftX;
+            double u = ys[i] - shiftY;
+            sumT += t;
+            sumU += u;
+            sumTU += t * u;
+            sumT2 += t * t;
         }
 
-        double denominator = n * sumX2 - sumX * sumX;
-        double a = (n * sumXY - sumX * sumY) / denominator;
-        double b = (sumY * sumX2 - sumX * sumXY) / denominator;
+        return linearCoefficients(n, sumT, sumU, sumTU, sumT2, shiftX, shiftY);
+    }
 
-        return new double[]{a, b};
+    // Суммы по t = x − shiftX и u = y − shiftY; коэффициенты — для исходных x и y
+    static double[] linearCoefficients(double n, double sumT, double sumU, double sumTU, double sumT2,
+                                       double shiftX, double shiftY) {
+        double denominator = n * sumT2 - sumT * sumT;
+        double a = (n * sumTU - sumT * sumU) / denominator;
+        double b = (sumU * sumT2 - sumT * sumTU) / denominator;
+
+        return new double[]{a, b + shiftY - a * shiftX};
     }
 
-    private static double[] polynomialApproximation(List<MyPoint> points, int degree) {
-        int n = points.size();
-        int m = degree + 1;
-        double[] coeff = new double[m];
-
-        double[][] X = new double[m][m];
-        double[] Y = new double[m];
-
-        for (MyPoint point : points) {
-            double x = point.getX();
-            double y = point.getY();
-            for (int i = 0; i < m; i++) {
-                for (int j = 0; j < m; j++) {
-                    X[i][j] += Math.pow(x, i + j);
-                }
-                Y[i] += y * Math.pow(x, i);
+    public static double[] approximatePolynomial(List<MyPoint> points, int degree) {
+        return approximatePolynomial(PointSet.fromList(points), degree);
+    }
+
+    // Полином произвольной степени; коэффициенты по возрастанию степеней
+    public static double[] approximatePolynomial(PointSet points, int degree) {
+        if (degree < 1) {
+            throw new IllegalArgumentException("Степень полинома должна быть положительной");
+        }
+        return polynomialApproximation(points, degree);
+    }
+
+    // Отдельный проход с центрированием x: по суммам исходных x у POLY3 на данных
+    // со смещением теряется большая часть точности
+    private static double[] polynomialApproximation(PointSet points, int degree) {
+        return PolynomialSolver.DEFAULT.fit(points, degree).getCoefficients();
+    }
+
+    // Нормальная матрица полинома — ганкелева, её элементы зависят только от сумм Σt^k,
+    // поэтому для каждой точки степени t = (x − shift)/halfWidth считаются одним проходом
+    // умножений. momentSums[k] = Σw·t^k·(y − yShift), powerSums[k] = Σw·t^k; weights == null —
+    // все веса равны 1.
+    static void accumulatePowerSums(double[] xs, double[] ys, double[] weights, int from, int to, double shift,
+                                    double halfWidth, double yShift, double[] powerSums, double[] momentSums) {
+        int maxPower = powerSums.length;
+        int maxMoment = momentSums.length;
+        for (int i = from; i < to; i++) {
+            double t = (xs[i] - shift) / halfWidth;
+            double u = ys[i] - yShift;
+            double power = weights == null ? 1 : weights[i];
+            for (int k = 0; k < maxMoment; k++) {
+                powerSums[k] += power;
+                momentSums[k] += power * u;
+                power *= t;
+            }
+            for (int k = maxMoment; k < maxPower; k++) {
+                powerSums[k] += power;
+                power *= t;
             }
         }
+    }
+
+    // S = Σu² − 2·c·m + cᵀ·G·c, где G[i][j] = Σt^(i+j), m[i] = Σt^i·u; NaN, если S ненадёжна
+    static double polynomialDeviation(double[] powerSums, double[] momentSums, double sumU2, double[] c) {
+        return polynomialDeviation(powerSums, momentSums, sumU2, c, false);
+    }
+
+    // clamp: ненадёжная S не заменяется на NaN, а ограничивается нулём
+    static double polynomialDeviation(double[] powerSums, double[] momentSums, double sumU2, double[] c,
+                                      boolean clamp) {
+        double S = sumU2;
+        double magnitude = sumU2;
+        for (int i = 0; i < c.length; i++) {
+            double term = 2 * c[i] * momentSums[i];
+            S -= term;
+            magnitude += Math.abs(term);
+            for (int j = 0; j < c.length; j++) {
+                term = c[i] * c[j] * powerSums[i + j];
+                S += term;
+                magnitude += Math.abs(term);
+            }
+        }
+        return clamp ? Math.max(S, 0) : reliableDeviation(S, magnitude);
+    }
 
-        coeff = gaussianElimination(X, Y);
+    // Остаток по моментам — разность больших слагаемых с суммой модулей magnitude; если он
+    // не больше CANCELLATION·magnitude, значащих цифр в нём не осталось (в том числе когда
+    // вычитание дало отрицательное число) и его нужно пересчитать проходом по точкам
+    private static final double CANCELLATION = 1e-8;
 
-        return coeff;
+    static double reliableDeviation(double S, double magnitude) {
+        return S > CANCELLATION * magnitude ? S : Double.NaN;
     }
 
-    private static double[] exponentialApproximation(List<MyPoint> points) {
+    // Σ(u − p(t))², t = (x − shift)/halfWidth, u = y − yShift; p — c[offset ... offset + m) по степеням t
+    static double polynomialResiduals(double[] xs, double[] ys, int from, int to, double shift, double halfWidth,
+                                      double yShift, double[] c, int offset, int m) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            double t = (xs[i] - shift) / halfWidth;
+            double p = c[offset + m - 1];
+            for (int k = m - 2; k >= 0; k--) {
+                p = p * t + c[offset + k];
+            }
+            double r = ys[i] - yShift - p;
+            sum += r * r;
+        }
+        return sum;
+    }
+
+    private static double[] exponentialApproximation(PointSet points) {
         int n = points.size();
-        double sumX = 0, sumLogY = 0, sumXLogY = 0, sumX2 = 0;
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        double shiftX = n > 0 ? xs[0] : 0;
+        // Точки с y ≤ 0 в логарифмах не участвуют и не входят в число точек системы
+        int used = 0;
+        double sumT = 0, sumLogY = 0, sumTLogY = 0, sumT2 = 0;
 
-        for (MyPoint point : points) {
-            double x = point.getX();
-            double y = point.getY();
+        for (int i = 0; i < n; i++) {
+            double y = ys[i];
             if (y <= 0) continue;
+            double t = xs[i] - shiftX;
             double logY = Math.log(y);
-            sumX += x;
+            used++;
+            sumT += t;
             sumLogY += logY;
-            sumXLogY += x * logY;
-            sumX2 += x * x;
+            sumTLogY += t * logY;
+            sumT2 += t * t;
         }
 
-        double denominator = n * sumX2 - sumX * sumX;
-        double b = (n * sumXLogY - sumX * sumLogY) / denominator;
-        double logA = (sumLogY * sumX2 - sumX * sumXLogY) / denominator;
-        double a = Math.exp(logA);
+        double[] initial = exponentialCoefficients(used, sumT, sumLogY, sumTLogY, sumT2, shiftX);
+        return LevenbergMarquardt.DEFAULT.fit(FunctionType.EXP, points, initial);
+    }
+
+    // Решение в логарифмах — начальное приближение для LevenbergMarquardt
+    // по t = x − shiftX: a·e^(b·t) = a·e^(−b·shiftX)·e^(b·x)
+    static double[] exponentialCoefficients(double n, double sumT, double sumLogY, double sumTLogY, double sumT2,
+                                            double shiftX) {
+        double denominator = n * sumT2 - sumT * sumT;
+        double b = (n * sumTLogY - sumT * sumLogY) / denominator;
+        double logA = (sumLogY * sumT2 - sumT * sumTLogY) / denominator;
+        double a = Math.exp(logA - b * shiftX);
 
         return new double[]{a, b};
     }
 
-    private static double[] logarithmicApproximation(List<MyPoint> points) {
+    private static double[] logarithmicApproximation(PointSet points) {
         int n = points.size();
-        double sumLogX = 0, sumY = 0, sumLogXY = 0, sumLogX2 = 0;
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        double logShift = logShift(n > 0 ? xs[0] : 0);
+        double shiftY = n > 0 ? ys[0] : 0;
+        int used = 0;
+        double sumV = 0, sumU = 0, sumVU = 0, sumV2 = 0;
 
-        for (MyPoint point : points) {
-            double x = point.getX();
-            double y = point.getY();
+        for (int i = 0; i < n; i++) {
+            double x = xs[i];
             if (x <= 0) continue;
-            double logX = Math.log(x);
-            sumLogX += logX;
-            sumY += y;
-            sumLogXY += logX * y;
-            sumLogX2 += logX * logX;
+            double v = Math.log(x) - logShift;
+            used++;
+            double u = ys[i] - shiftY;
+            sumV += v;
+            sumU += u;
+            sumVU += v * u;
+            sumV2 += v * v;
         }
 
-        double denominator = n * sumLogX2 - sumLogX * sumLogX;
-        double b = (n * sumLogXY - sumLogX * sumY) / denominator;
-        double a = (sumY * sumLogX2 - sumLogX * sumLogXY) / denominator;
+        return logarithmicCoefficients(used, sumV, sumU, sumVU, sumV2, logShift, shiftY);
+    }
 
-        return new double[]{a, b};
+    // Сдвиг ln x, общий с FitStatistics: логарифм первого x, если он положителен
+    static double logShift(double x) {
+        return x > 0 ? Math.log(x) : 0;
+    }
+
+    // Суммы по v = ln x − logShift и u = y − shiftY
+    static double[] logarithmicCoefficients(double n, double sumV, double sumU, double sumVU, double sumV2,
+                                            double logShift, double shiftY) {
+        double denominator = n * sumV2 - sumV * sumV;
+        double b = (n * sumVU - sumV * sumU) / denominator;
+        double a = (sumU * sumV2 - sumV * sumVU) / denominator;
+
+        return new double[]{a + shiftY - b * logShift, b};
     }
 
-    private static double[] powerApproximation(List<MyPoint> points) {
+    private static double[] powerApproximation(PointSet points) {
         int n = points.size();
-        double sumLogX = 0, sumLogY = 0, sumLogXLogY = 0, sumLogX2 = 0;
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        double logShift = logShift(n > 0 ? xs[0] : 0);
+        int used = 0;
+        double sumV = 0, sumLogY = 0, sumVLogY = 0, sumV2 = 0;
 
-        for (MyPoint point : points) {
-            double x = point.getX();
-            double y = point.getY();
+        for (int i = 0; i < n; i++) {
+            double x = xs[i];
+            double y = ys[i];
             if (x <= 0 || y <= 0) continue;
-            double logX = Math.log(x);
+            double v = Math.log(x) - logShift;
             double logY = Math.log(y);
-            sumLogX += logX;
+            used++;
+            sumV += v;
             sumLogY += logY;
-            sumLogXLogY += logX * logY;
-            sumLogX2 += logX * logX;
+            sumVLogY += v * logY;
+            sumV2 += v * v;
         }
 
-        double denominator = n * sumLogX2 - sumLogX * sumLogX;
-        double b = (n * sumLogXLogY - sumLogX * sumLogY) / denominator;
-        double logA = (sumLogY * sumLogX2 - sumLogX * sumLogXLogY) / denominator;
-        double a = Math.exp(logA);
+        double[] initial = powerCoefficients(used, sumV, sumLogY, sumVLogY, sumV2, logShift);
+        return LevenbergMarquardt.DEFAULT.fit(FunctionType.POWER, points, initial);
+    }
+
+    // Решение в логарифмах — начальное приближение для LevenbergMarquardt
+    // по v = ln x − logShift: a·e^(b·v) = a·e^(−b·logShift)·x^b
+    static double[] powerCoefficients(double n, double sumV, double sumLogY, double sumVLogY, double sumV2,
+                                      double logShift) {
+        double denominator = n * sumV2 - sumV * sumV;
+        double b = (n * sumVLogY - sumV * sumLogY) / denominator;
+        double logA = (sumLogY * sumV2 - sumV * sumVLogY) / denominator;
+        double a = Math.exp(logA - b * logShift);
 
         return new double[]{a, b};
     }
 
+    // Подобранная функция как объект; для BEST — лучшая из остальных
+    public static FittedModel fit(FunctionType type, PointSet points) {
+        if (type == FunctionType.BEST) {
+            return fitBest(FitStatistics.of(points), points);
+        }
+        return FittedModel.of(type, approximate(type, points));
+    }
+
     public static FunctionType findBestFit(List<MyPoint> points) {
+        return findBestFit(PointSet.fromList(points));
+    }
+
+    public static FunctionType findBestFit(PointSet points) {
+        return findBestFit(FitStatistics.of(points), points);
+    }
+
+    public static FunctionType findBestFit(FitStatistics stats, PointSet points) {
+        FittedModel best = fitBest(stats, points);
+        return best == null ? null : best.getType();
+    }
+
+    // Статистики уже собраны за один проход. EXP и POWER уточняются нелинейным МНК
+    // от решения в логарифмах, чтобы все модели сравнивались по одной и той же
+    // сумме квадратов; их остатки через моменты не выражаются и считаются отдельным проходом.
+    // null, если ни одна модель не дала конечного отклонения.
+    public static FittedModel fitBest(FitStatistics stats, PointSet points) {
+        return fitBest(stats, points.getXs(), points.getYs(), 0, points.size());
+    }
+
+    // Выбор по критерию, учитывающему число параметров или ошибку на отложенных точках;
+    // DEVIATION совпадает с fitBest(FitStatistics, PointSet)
+    public static FittedModel fitBest(PointSet points, SelectionCriterion criterion) {
+        if (criterion == SelectionCriterion.DEVIATION) {
+            return fitBest(FitStatistics.of(points), points);
+        }
+        return ModelSelection.of(points).best(criterion);
+    }
+
+    // stats собраны по точкам [from, to)
+    static FittedModel fitBest(FitStatistics stats, double[] xs, double[] ys, int from, int to) {
+        double[] expCoeffs = LevenbergMarquardt.DEFAULT.fit(FunctionType.EXP, xs, ys, null, from, to, stats.coefficients(FunctionType.EXP));
+        double[] powerCoeffs = LevenbergMarquardt.DEFAULT.fit(FunctionType.POWER, xs, ys, null, from, to, stats.coefficients(FunctionType.POWER));
+        double[] nonlinearDeviations = calculateNonlinearDeviations(xs, ys, from, to, expCoeffs, powerCoeffs);
+        FunctionType bestType = selectBestFit(stats, nonlinearDeviations, model -> model.deviation(xs, ys, from, to));
+        return bestModel(stats, bestType, expCoeffs, powerCoeffs);
+    }
+
+    static FittedModel bestModel(FitStatistics stats, FunctionType bestType, double[] expCoeffs, double[] powerCoeffs) {
+        if (bestType == null) return null;
+        if (bestType == FunctionType.EXP) return FittedModel.of(bestType, expCoeffs);
+        if (bestType == FunctionType.POWER) return FittedModel.of(bestType, powerCoeffs);
+        return FittedModel.of(bestType, stats.coefficients(bestType));
+    }
+
+    // nonlinearDeviations = {S для EXP, S для POWER}; pass пересчитывает ненадёжные по моментам остатки
+    static FunctionType selectBestFit(FitStatistics stats, double[] nonlinearDeviations, FitStatistics.ResidualPass pass) {
         FunctionType bestType = null;
         double minDeviation = Double.MAX_VALUE;
 
         for (FunctionType type : FunctionType.values()) {
             if (type == FunctionType.BEST) continue;
 
-            double[] coeffs = approximate(type, points);
-            double deviation = calculateDeviation(type, points, coeffs);
+            double deviation;
+            if (type == FunctionType.EXP) {
+                deviation = nonlinearDeviations[0];
+            } else if (type == FunctionType.POWER) {
+                deviation = nonlinearDeviations[1];
+            } else {
+                deviation = stats.deviation(type, stats.coefficients(type), pass);
+            }
 
             if (deviation < minDeviation) {
                 minDeviation = deviation;
@@ -156,102 +341,61 @@ public class Algorithm {
         return bestType;
     }
 
-    public static double[] bestFit(List<MyPoint> points) {
-        FunctionType bestType = findBestFit(points);
-        return approximate(bestType, points);
+    static double[] calculateNonlinearDeviations(double[] xs, double[] ys, int from, int to, double[] expCoeffs, double[] powerCoeffs) {
+        double expS = FittedModel.of(FunctionType.EXP, expCoeffs).deviation(xs, ys, from, to);
+        double powerS = FittedModel.of(FunctionType.POWER, powerCoeffs).deviation(xs, ys, from, to);
+        return new double[]{expS, powerS};
     }
 
-
-    public static double calculateDeviation(FunctionType type, List<MyPoint> points, double[] coeffs) {
-        double S = 0;
-        for (MyPoint point : points) {
-            double x = point.getX();
-            double yActual = point.getY();
-            double yApprox = 0;
-
-            switch (type) {
-                case LINEAR:
-                    yApprox = coeffs[0] * x + coeffs[1];
-                    break;
-                case POLY2:
-                    yApprox = coeffs[0] + coeffs[1] * x + coeffs[2] * x * x;
-                    break;
-                case POLY3:
-                    yApprox = coeffs[0] + coeffs[1] * x + coeffs[2] * x * x + coeffs[3] * x * x * x;
-                    break;
-                case EXP:
-                    yApprox = coeffs[0] * Math.exp(coeffs[1] * x);
-                    break;
-                case LOG:
-                    yApprox = coeffs[0] + coeffs[1] * Math.log(x);
-                    break;
-                case POWER:
-                    yApprox = coeffs[0] * Math.pow(x, coeffs[1]);
-                    break;
-                default:
-                    throw new IllegalArgumentException("Неизвестный тип функции");
-            }
-
-            S += Math.pow(yActual - yApprox, 2);
-        }
-
-        return S;
+    public static double[] bestFit(List<MyPoint> points) {
+        return bestFit(PointSet.fromList(points));
     }
 
-    private static double[] gaussianElimination(double[][] A, double[] B) {
-        int n = B.length;
-        for (int i = 0; i < n; i++) {
-            int max = i;
-            for (int j = i + 1; j < n; j++) {
-                if (Math.abs(A[j][i]) > Math.abs(A[max][i])) {
-                    max = j;
-                }
-            }
+    public static double[] bestFit(PointSet points) {
+        return fitBest(FitStatistics.of(points), points).getCoefficients();
+    }
 
-            double[] temp = A[i];
-            A[i] = A[max];
-            A[max] = temp;
 
-            double t = B[i];
-            B[i] = B[max];
-            B[max] = t;
+    public static double calculateDeviation(FunctionType type, List<MyPoint> points, double[] coeffs) {
+        return calculateDeviation(type, PointSet.fromList(points), coeffs);
+    }
 
-            for (int j = i + 1; j < n; j++) {
-                double factor = A[j][i] / A[i][i];
-                B[j] -= factor * B[i];
-                for (int k = i; k < n; k++) {
-                    A[j][k] -= factor * A[i][k];
-                }
-            }
-        }
+    public static double calculateDeviation(FunctionType type, PointSet points, double[] coeffs) {
+        return calculateDeviation(type, points.getXs(), points.getYs(), 0, points.size(), coeffs);
+    }
 
-        double[] x = new double[n];
-        for (int i = n - 1; i >= 0; i--) {
-            double sum = 0;
-            for (int j = i + 1; j < n; j++) {
-                sum += A[i][j] * x[j];
-            }
-            x[i] = (B[i] - sum) / A[i][i];
-        }
-        return x;
+    static double calculateDeviation(FunctionType type, double[] xs, double[] ys, int from, int to, double[] coeffs) {
+        return FittedModel.of(type, coeffs).deviation(xs, ys, from, to);
     }
 
     public static double calculatePearsonCorrelation(List<MyPoint> points) {
+        return calculatePearsonCorrelation(PointSet.fromList(points));
+    }
+
+    public static double calculatePearsonCorrelation(PointSet points) {
         int n = points.size();
         if (n == 0) return 0;
 
-        double sumX = 0, sumY = 0, sumXY = 0, sumX2 = 0, sumY2 = 0;
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        // Корреляция не зависит от сдвигов; суммы относительно первой точки
+        double shiftX = xs[0], shiftY = ys[0];
+        double sumT = 0, sumU = 0, sumTU = 0, sumT2 = 0, sumU2 = 0;
 
-        for (MyPoint point : points) {
-            double x = point.getX();
-            double y = point.getY();
-            sumX += x;
-            sumY += y;
-            sumXY += x * y;
-            sumX2 += x * x;
-            sumY2 += y * y;
+        for (int i = 0; i < n; i++) {
+            double t = xs[i] - shiftX;
+            double u = ys[i] - shiftY;
+            sumT += t;
+            sumU += u;
+            sumTU += t * u;
+            sumT2 += t * t;
+            sumU2 += u * u;
         }
 
+        return pearsonCorrelation(n, sumT, sumU, sumTU, sumT2, sumU2);
+    }
+
+    static double pearsonCorrelation(double n, double sumX, double sumY, double sumXY, double sumX2, double sumY2) {
         double numerator = n * sumXY - sumX * sumY;
         double denominator = Math.sqrt((n * sumX2 - sumX * sumX) * (n * sumY2 - sumY * sumY));
 
@@ -261,47 +405,31 @@ public class Algorithm {
     }
 
     public static double calculateR2(FunctionType type, List<MyPoint> points, double[] coeffs) {
-        double meanY = 0;
-        double totalSS = 0;
-        double residualSS = 0;
+        return calculateR2(type, PointSet.fromList(points), coeffs);
+    }
 
+    public static double calculateR2(FunctionType type, PointSet points, double[] coeffs) {
+        return calculateR2(FittedModel.of(type, coeffs), points);
+    }
 
-        for (MyPoint point : points) {
-            meanY += point.getY();
-        }
-        meanY /= points.size();
-
-
-        for (MyPoint point : points) {
-            double yActual = point.getY();
-            double yPredicted = 0;
-
-            switch (type) {
-                case LINEAR:
-                    yPredicted = coeffs[0] * point.getX() + coeffs[1];
-                    break;
-                case POLY2:
-                    yPredicted = coeffs[0] + coeffs[1] * point.getX() + coeffs[2] * point.getX() * point.getX();
-                    break;
-                case POLY3:
-                    yPredicted = coeffs[0] + coeffs[1] * point.getX() + coeffs[2] * point.getX() * point.getX() + coeffs[3] * point.getX() * point.getX() * point.getX();
-                    break;
-                case EXP:
-                    yPredicted = coeffs[0] * Math.exp(coeffs[1] * point.getX());
-                    break;
-                case LOG:
-                    yPredicted = coeffs[0] + coeffs[1] * Math.log(point.getX());
-                    break;
-                case POWER:
-                    yPredicted = coeffs[0] * Math.pow(point.getX(), coeffs[1]);
-                    break;
-                default:
-                    throw new IllegalArgumentException("Неизвестный тип функции");
-            }
+    public static double calculateR2(FittedModel model, PointSet points) {
+        return calculateR2(points, model.deviation(points));
+    }
 
-            totalSS += Math.pow(yActual - meanY, 2);
-            residualSS += Math.pow(yActual - yPredicted, 2);
+    // R² по уже посчитанной сумме квадратов отклонений residualSS: проход только по y
+    public static double calculateR2(PointSet points, double residualSS) {
+        int n = points.size();
+        double[] ys = points.getYs();
+
+        // Суммы считаются относительно первого значения, чтобы Σy² − n·ȳ² не терял точность
+        double shift = n > 0 ? ys[0] : 0;
+        double sum = 0, sumSquares = 0;
+        for (int i = 0; i < n; i++) {
+            double d = ys[i] - shift;
+            sum += d;
+            sumSquares += d * d;
         }
+        double totalSS = sumSquares - sum * sum / n;
 
         return 1 - (residualSS / totalSS);
     }
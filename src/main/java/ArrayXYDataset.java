@@ -0,0 +1,142 @@
+import org.jfree.data.DomainInfo;
+import org.jfree.data.DomainOrder;
+import org.jfree.data.Range;
+import org.jfree.data.RangeInfo;
+import org.jfree.data.xy.AbstractXYDataset;
+
+// Одна серия точек поверх массивов double без упаковки в объекты. setData
+// подменяет массивы целиком и оповещает график одним событием; границы по осям
+// считаются там же, чтобы автомасштаб не обходил набор заново.
+public class ArrayXYDataset extends AbstractXYDataset implements DomainInfo, RangeInfo {
+    private final String key;
+    private final DomainOrder order;
+    private double[] xs;
+    private double[] ys;
+    private int size;
+    private Range domainBounds;
+    private Range rangeBounds;
+
+    // order = DomainOrder.ASCENDING, если x в данных всегда возрастают: тогда
+    // рендерер рисует только видимый участок
+    public ArrayXYDataset(String key, DomainOrder order) {
+        this.key = key;
+        this.order = order;
+    }
+
+    // Массивы не копируются и не должны меняться до следующего вызова setData
+    public void setData(double[] xs, double[] ys, int size) {
+        if (size < 0 || size > xs.length || size > ys.length) {
+            throw new IllegalArgumentException("Размер набора не совпадает с длиной массивов");
+        }
+        this.xs = xs;
+        this.ys = ys;
+        this.size = size;
+        domainBounds = bounds(xs, size);
+        rangeBounds = bounds(ys, size);
+        fireDatasetChanged();
+    }
+
+    public void setData(PointSet points) {
+        setData(points.getXs(), points.getYs(), points.size());
+    }
+
+    // Без данных серия не показывается и в легенде
+    public void clear() {
+        xs = null;
+        ys = null;
+        size = 0;
+        domainBounds = null;
+        rangeBounds = null;
+        fireDatasetChanged();
+    }
+
+    private static Range bounds(double[] values, int size) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            double value = values[i];
+            // NaN не проходит ни одно сравнение
+            if (value < min) min = value;
+            if (value > max) max = value;
+        }
+        return min <= max ? new Range(min, max) : null;
+    }
+
+    @Override
+    public int getSeriesCount() {
+        return xs == null ? 0 : 1;
+    }
+
+    @Override
+    public Comparable getSeriesKey(int series) {
+        checkSeries(series);
+        return key;
+    }
+
+    @Override
+    public DomainOrder getDomainOrder() {
+        return order;
+    }
+
+    @Override
+    public int getItemCount(int series) {
+        checkSeries(series);
+        return size;
+    }
+
+    @Override
+    public Number getX(int series, int item) {
+        return getXValue(series, item);
+    }
+
+    @Override
+    public Number getY(int series, int item) {
+        return getYValue(series, item);
+    }
+
+    @Override
+    public double getXValue(int series, int item) {
+        return xs[item];
+    }
+
+    @Override
+    public double getYValue(int series, int item) {
+        return ys[item];
+    }
+
+    @Override
+    public double getDomainLowerBound(boolean includeInterval) {
+        return domainBounds == null ? Double.NaN : domainBounds.getLowerBound();
+    }
+
+    @Override
+    public double getDomainUpperBound(boolean includeInterval) {
+        return domainBounds == null ? Double.NaN : domainBounds.getUpperBound();
+    }
+
+    @Override
+    public Range getDomainBounds(boolean includeInterval) {
+        return domainBounds;
+    }
+
+    @Override
+    public double getRangeLowerBound(boolean includeInterval) {
+        return rangeBounds == null ? Double.NaN : rangeBounds.getLowerBound();
+    }
+
+    @Override
+    public double getRangeUpperBound(boolean includeInterval) {
+        return rangeBounds == null ? Double.NaN : rangeBounds.getUpperBound();
+    }
+
+    @Override
+    public Range getRangeBounds(boolean includeInterval) {
+        return rangeBounds;
+    }
+
+    private void checkSeries(int series) {
+        if (series != 0 || xs == null) {
+            throw new IllegalArgumentException("Нет серии с номером " + series);
+        }
+    }
+}
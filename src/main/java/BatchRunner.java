@@ -0,0 +1,323 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// Пакетный режим без GUI: аппроксимирует каждый файл из списка или каталога
+// и построчно выводит результаты в формате CSV или JSON Lines.
+public class BatchRunner {
+
+    public enum Format {
+        CSV, JSON
+    }
+
+    private static final String CSV_HEADER = "file,points,function,coefficients,r2,deviation,pearson,load_ms,fit_ms,error";
+
+    private final FunctionType type;
+    private final SelectionCriterion criterion;
+    private final Format format;
+    private final int threads;
+    private final PrintStream out;
+
+    public BatchRunner(FunctionType type, Format format, int threads, PrintStream out) {
+        this(type, SelectionCriterion.DEVIATION, format, threads, out);
+    }
+
+    // criterion — по какому критерию выбирается функция в режиме BEST
+    public BatchRunner(FunctionType type, SelectionCriterion criterion, Format format, int threads, PrintStream out) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Количество потоков должно быть положительным");
+        }
+        this.type = type;
+        this.criterion = criterion;
+        this.format = format;
+        this.threads = threads;
+        this.out = out;
+    }
+
+    public static void main(String[] args) {
+        FunctionType type = FunctionType.BEST;
+        SelectionCriterion criterion = SelectionCriterion.DEVIATION;
+        Format format = Format.CSV;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> inputs = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--batch":
+                        break;
+                    case "--type":
+                        type = parseType(args[++i]);
+                        break;
+                    case "--criterion":
+                        criterion = parseCriterion(args[++i]);
+                        break;
+                    case "--format":
+                        format = Format.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        inputs.add(Paths.get(args[i]));
+                }
+            }
+        } catch (RuntimeException e) {
+            printUsage();
+            System.exit(2);
+            return;
+        }
+
+        if (inputs.isEmpty()) {
+            printUsage();
+            System.exit(2);
+            return;
+        }
+
+        try {
+            int failures = new BatchRunner(type, criterion, format, threads, System.out).run(inputs);
+            System.exit(failures == 0 ? 0 : 1);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(130);
+        }
+    }
+
+    private static void printUsage() {
+        System.err.println("Использование: --batch [--type LINEAR|POLY2|POLY3|EXP|LOG|POWER|BEST] "
+                + "[--criterion deviation|aic|bic|cv] [--format csv|json] [--threads N] <файл или каталог>...");
+    }
+
+    static SelectionCriterion parseCriterion(String name) {
+        if ("cv".equalsIgnoreCase(name)) {
+            return SelectionCriterion.CROSS_VALIDATION;
+        }
+        return SelectionCriterion.valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    static FunctionType parseType(String name) {
+        FunctionType type = FunctionType.getFunctionTypeByName(name);
+        if (type != null) {
+            return type;
+        }
+        return FunctionType.valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    // Возвращает количество файлов, которые не удалось обработать
+    public int run(List<Path> inputs) throws IOException, InterruptedException {
+        List<Path> files = expand(inputs);
+        if (format == Format.CSV) {
+            out.println(CSV_HEADER);
+        }
+
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (Path file : files) {
+                executor.execute(() -> {
+                    if (!process(file)) {
+                        failures.incrementAndGet();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        out.flush();
+        return failures.get();
+    }
+
+    private static List<Path> expand(List<Path> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> entries = Files.list(input)) {
+                    entries.filter(Files::isRegularFile).sorted().forEach(files::add);
+                }
+            } else {
+                files.add(input);
+            }
+        }
+        return files;
+    }
+
+    private boolean process(Path file) {
+        try {
+            // Двоичные файлы подбираются блоками, без загрузки в кучу; выбор по критериям
+            // кроме DEVIATION требует всех точек в памяти
+            if (criterion == SelectionCriterion.DEVIATION && BinaryPointFile.isBinary(file)) {
+                return processBinary(file);
+            }
+        } catch (IOException e) {
+            emit(file, 0, null, null, Double.NaN, Double.NaN, Double.NaN, 0, 0, String.valueOf(e.getMessage()));
+            return false;
+        }
+
+        long start = System.nanoTime();
+        PointSet points;
+        long started = StageMetrics.start();
+        try {
+            points = PointFileLoader.load(file);
+            StageMetrics.stop(StageMetrics.Stage.LOAD, started);
+        } catch (IOException | RuntimeException e) {
+            emit(file, 0, null, null, Double.NaN, Double.NaN, Double.NaN, elapsedMillis(start), 0, String.valueOf(e.getMessage()));
+            return false;
+        }
+        long loaded = System.nanoTime();
+        double loadMillis = (loaded - start) / 1e6;
+
+        try {
+            FitResult result = FitResult.compute(type, points, criterion);
+            emit(file, points.size(), result.getType(), result.getCoefficients(), result.getR2(), result.getDeviation(),
+                    result.getPearson(), loadMillis, elapsedMillis(loaded), null);
+            return true;
+        } catch (RuntimeException e) {
+            emit(file, points.size(), null, null, Double.NaN, Double.NaN, Double.NaN, loadMillis, elapsedMillis(loaded), String.valueOf(e.getMessage()));
+            return false;
+        }
+    }
+
+    private boolean processBinary(Path file) {
+        long start = System.nanoTime();
+        BinaryPointFile binary;
+        long started = StageMetrics.start();
+        try {
+            binary = BinaryPointFile.open(file);
+            StageMetrics.stop(StageMetrics.Stage.LOAD, started);
+        } catch (IOException | RuntimeException e) {
+            emit(file, 0, null, null, Double.NaN, Double.NaN, Double.NaN, elapsedMillis(start), 0, String.valueOf(e.getMessage()));
+            return false;
+        }
+        long loaded = System.nanoTime();
+        double loadMillis = (loaded - start) / 1e6;
+
+        try {
+            FitResult result = FitResult.compute(type, binary);
+            emit(file, binary.size(), result.getType(), result.getCoefficients(), result.getR2(), result.getDeviation(),
+                    result.getPearson(), loadMillis, elapsedMillis(loaded), null);
+            return true;
+        } catch (RuntimeException e) {
+            emit(file, binary.size(), null, null, Double.NaN, Double.NaN, Double.NaN, loadMillis, elapsedMillis(loaded), String.valueOf(e.getMessage()));
+            return false;
+        }
+    }
+
+    private static double elapsedMillis(long since) {
+        return (System.nanoTime() - since) / 1e6;
+    }
+
+    private void emit(Path file, long points, FunctionType fittedType, double[] coeffs, double r2, double deviation,
+                      double pearson, double loadMillis, double fitMillis, String error) {
+        String row = format == Format.CSV
+                ? csvRow(file, points, fittedType, coeffs, r2, deviation, pearson, loadMillis, fitMillis, error)
+                : jsonRow(file, points, fittedType, coeffs, r2, deviation, pearson, loadMillis, fitMillis, error);
+        // Строка выводится целиком одним вызовом, чтобы строки разных потоков не перемешивались
+        synchronized (out) {
+            out.println(row);
+            out.flush();
+        }
+    }
+
+    private static String csvRow(Path file, long points, FunctionType fittedType, double[] coeffs, double r2,
+                                 double deviation, double pearson, double loadMillis, double fitMillis, String error) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(csvQuote(file.toString())).append(',');
+        sb.append(points).append(',');
+        sb.append(fittedType == null ? "" : fittedType.name()).append(',');
+        if (coeffs != null) {
+            for (int i = 0; i < coeffs.length; i++) {
+                if (i > 0) sb.append(' ');
+                sb.append(coeffs[i]);
+            }
+        }
+        sb.append(',').append(r2);
+        sb.append(',').append(deviation);
+        sb.append(',').append(pearson);
+        sb.append(',').append(String.format(Locale.ROOT, "%.3f", loadMillis));
+        sb.append(',').append(String.format(Locale.ROOT, "%.3f", fitMillis));
+        sb.append(',').append(error == null ? "" : csvQuote(error));
+        return sb.toString();
+    }
+
+    private static String csvQuote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String jsonRow(Path file, long points, FunctionType fittedType, double[] coeffs, double r2,
+                                  double deviation, double pearson, double loadMillis, double fitMillis, String error) {
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"file\":").append(jsonString(file.toString()));
+        sb.append(",\"points\":").append(points);
+        sb.append(",\"function\":").append(fittedType == null ? "null" : jsonString(fittedType.name()));
+        sb.append(",\"coefficients\":");
+        if (coeffs == null) {
+            sb.append("null");
+        } else {
+            sb.append('[');
+            for (int i = 0; i < coeffs.length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append(jsonNumber(coeffs[i]));
+            }
+            sb.append(']');
+        }
+        sb.append(",\"r2\":").append(jsonNumber(r2));
+        sb.append(",\"deviation\":").append(jsonNumber(deviation));
+        sb.append(",\"pearson\":").append(jsonNumber(pearson));
+        sb.append(",\"load_ms\":").append(String.format(Locale.ROOT, "%.3f", loadMillis));
+        sb.append(",\"fit_ms\":").append(String.format(Locale.ROOT, "%.3f", fitMillis));
+        sb.append(",\"error\":").append(error == null ? "null" : jsonString(error));
+        return sb.append('}').toString();
+    }
+
+    static String jsonNumber(double value) {
+        return Double.isFinite(value) ? String.valueOf(value) : "null";
+    }
+
+    static String jsonString(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,371 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Двоичный файл точек, все числа little-endian:
+//   0   magic "LAB4PNTS"
+//   8   int    версия формата
+//   12  int    флаги (FLAG_MOMENTS — в заголовке есть накопленные статистики)
+//   16  long   количество точек
+//   24  double minX, maxX, minY, maxY
+//   56  статистики FitStatistics (если установлен FLAG_MOMENTS); в версии 1 суммы
+//       копились по исходным x и y, в версии 2 не было Σ(ln y)², и при чтении
+//       суммы старых версий отбрасываются
+//   512 колонка x, затем колонка y
+// Колонки отображаются в память окнами по WINDOW_POINTS точек, поэтому размер файла
+// не ограничен ни кучей, ни 2 ГБ одного MappedByteBuffer. forEachChunk читает точки
+// блоками в буферы постоянного размера: алгоритмы, работающие с double[], проходят
+// по файлу любого размера без роста кучи.
+public class BinaryPointFile {
+    public static final int VERSION = 3;
+    public static final int FLAG_MOMENTS = 1;
+
+    private static final byte[] MAGIC = {'L', 'A', 'B', '4', 'P', 'N', 'T', 'S'};
+    private static final int HEADER_SIZE = 512;
+    private static final int MOMENTS_OFFSET = 56;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+    private static final int WINDOW_POINTS = 1 << 26;
+    // Точек в одном блоке forEachChunk: 2 × 512 КБ, помещается в кэш L2
+    static final int CHUNK_POINTS = 1 << 16;
+    private static final int MAX_POINT_SET_SIZE = Integer.MAX_VALUE - 8;
+
+    // Блок точек: xs[0 .. count), ys[0 .. count). Массивы переиспользуются
+    // между вызовами и действительны только во время вызова
+    public interface ChunkConsumer {
+        void accept(double[] xs, double[] ys, int count);
+    }
+
+    private final long count;
+    private final double minX;
+    private final double maxX;
+    private final double minY;
+    private final double maxY;
+    private final FitStatistics statistics;
+    private final DoubleBuffer[] xWindows;
+    private final DoubleBuffer[] yWindows;
+
+    private BinaryPointFile(long count, double minX, double maxX, double minY, double maxY,
+                            FitStatistics statistics, DoubleBuffer[] xWindows, DoubleBuffer[] yWindows) {
+        this.count = count;
+        this.minX = minX;
+        this.maxX = maxX;
+        this.minY = minY;
+        this.maxY = maxY;
+        this.statistics = statistics;
+        this.xWindows = xWindows;
+        this.yWindows = yWindows;
+    }
+
+    public static boolean isBinary(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < MAGIC.length) return false;
+            ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+            while (magic.hasRemaining()) {
+                if (channel.read(magic) < 0) return false;
+            }
+            return Arrays.equals(magic.array(), MAGIC);
+        }
+    }
+
+    // Колонки отображаются в память и не копируются; отображение остаётся
+    // действительным и после закрытия канала
+    public static BinaryPointFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Некорректный двоичный файл точек: нет заголовка");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Некорректный двоичный файл точек: неверная сигнатура");
+            }
+            int version = header.getInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Неподдерживаемая версия двоичного файла точек: " + version);
+            }
+            int flags = header.getInt();
+            long count = header.getLong();
+            double minX = header.getDouble();
+            double maxX = header.getDouble();
+            double minY = header.getDouble();
+            double maxY = header.getDouble();
+
+            FitStatistics statistics = null;
+            if ((flags & FLAG_MOMENTS) != 0 && version == VERSION) {
+                header.position(MOMENTS_OFFSET);
+                statistics = FitStatistics.readFrom(header);
+            }
+
+            // Число точек проверяется до умножения: count из повреждённого заголовка
+            // переполнил бы count·8 и прошёл бы проверку длины файла
+            if (count < 0 || count > (channel.size() - HEADER_SIZE) / (2 * Double.BYTES)) {
+                throw new IOException("Некорректный двоичный файл точек: файл обрезан");
+            }
+            long columnBytes = count * Double.BYTES;
+
+            DoubleBuffer[] xWindows = mapColumn(channel, HEADER_SIZE, count);
+            DoubleBuffer[] yWindows = mapColumn(channel, HEADER_SIZE + columnBytes, count);
+            return new BinaryPointFile(count, minX, maxX, minY, maxY, statistics, xWindows, yWindows);
+        }
+    }
+
+    private static DoubleBuffer[] mapColumn(FileChannel channel, long offset, long count) throws IOException {
+        int windows = (int) ((count + WINDOW_POINTS - 1) / WINDOW_POINTS);
+        DoubleBuffer[] result = new DoubleBuffer[Math.max(windows, 1)];
+        for (int w = 0; w < result.length; w++) {
+            long first = (long) w * WINDOW_POINTS;
+            long length = Math.min(WINDOW_POINTS, count - first) * Double.BYTES;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset + first * Double.BYTES, length);
+            result[w] = buffer.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+        return result;
+    }
+
+    public static void write(Path path, PointSet points) throws IOException {
+        write(path, points, true);
+    }
+
+    public static void write(Path path, PointSet points, boolean withMoments) throws IOException {
+        int n = points.size();
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        FitStatistics statistics = withMoments ? new FitStatistics() : null;
+        for (int i = 0; i < n; i++) {
+            double x = xs[i];
+            double y = ys[i];
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+            if (statistics != null) {
+                statistics.add(x, y);
+            }
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(withMoments ? FLAG_MOMENTS : 0);
+        header.putLong(n);
+        header.putDouble(minX).putDouble(maxX).putDouble(minY).putDouble(maxY);
+        if (statistics != null) {
+            statistics.writeTo(header);
+        }
+        header.clear();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            writeColumn(channel, buffer, xs, n);
+            writeColumn(channel, buffer, ys, n);
+        }
+    }
+
+    // Запись без размещения точек в куче: количество известно заранее, колонки x и y
+    // пишутся в свои области файла через буферы постоянного размера, заголовок —
+    // при закрытии
+    public static Writer create(Path path, long count, boolean withMoments) throws IOException {
+        if (count < 0) {
+            throw new IllegalArgumentException("Количество точек не может быть отрицательным");
+        }
+        return new Writer(path, count, withMoments);
+    }
+
+    public static final class Writer implements AutoCloseable {
+        private final FileChannel channel;
+        private final long count;
+        private final FitStatistics statistics;
+        private final ByteBuffer xBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final ByteBuffer yBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private long xPosition;
+        private long yPosition;
+        private long written;
+        private double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        private double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+
+        private Writer(Path path, long count, boolean withMoments) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.count = count;
+            this.statistics = withMoments ? new FitStatistics() : null;
+            this.xPosition = HEADER_SIZE;
+            this.yPosition = HEADER_SIZE + count * Double.BYTES;
+        }
+
+        public void add(double x, double y) throws IOException {
+            if (written == count) {
+                throw new IllegalStateException("Записано больше точек, чем объявлено: " + count);
+            }
+            xBuffer.putDouble(x);
+            yBuffer.putDouble(y);
+            written++;
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+            if (statistics != null) {
+                statistics.add(x, y);
+            }
+            if (!xBuffer.hasRemaining()) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            xPosition += writeAt(xBuffer, xPosition);
+            yPosition += writeAt(yBuffer, yPosition);
+        }
+
+        private int writeAt(ByteBuffer buffer, long position) throws IOException {
+            buffer.flip();
+            int length = buffer.remaining();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+            return length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (written != count) {
+                    throw new IOException("Записано " + written + " точек из " + count);
+                }
+                flush();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.put(MAGIC);
+                header.putInt(VERSION);
+                header.putInt(statistics != null ? FLAG_MOMENTS : 0);
+                header.putLong(count);
+                header.putDouble(minX).putDouble(maxX).putDouble(minY).putDouble(maxY);
+                if (statistics != null) {
+                    statistics.writeTo(header);
+                }
+                header.clear();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    private static void writeColumn(FileChannel channel, ByteBuffer buffer, double[] column, int n) throws IOException {
+        DoubleBuffer doubles = buffer.clear().asDoubleBuffer();
+        int chunk = doubles.capacity();
+        for (int from = 0; from < n; from += chunk) {
+            int length = Math.min(chunk, n - from);
+            doubles.clear();
+            doubles.put(column, from, length);
+            buffer.clear().limit(length * Double.BYTES);
+            writeFully(channel, buffer);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public long size() {
+        return count;
+    }
+
+    public double getMinX() {
+        return minX;
+    }
+
+    public double getMaxX() {
+        return maxX;
+    }
+
+    public double getMinY() {
+        return minY;
+    }
+
+    public double getMaxY() {
+        return maxY;
+    }
+
+    public boolean hasStatistics() {
+        return statistics != null;
+    }
+
+    // Накопленные при записи статистики: коэффициенты всех моделей без чтения колонок
+    public FitStatistics getStatistics() {
+        if (statistics == null) {
+            throw new IllegalStateException("В файле нет накопленных статистик");
+        }
+        FitStatistics copy = new FitStatistics();
+        copy.merge(statistics);
+        return copy;
+    }
+
+    // Колонка целиком доступна, только если она умещается в одно окно
+    public DoubleBuffer getXColumn() {
+        return singleWindow(xWindows).duplicate();
+    }
+
+    public DoubleBuffer getYColumn() {
+        return singleWindow(yWindows).duplicate();
+    }
+
+    private static DoubleBuffer singleWindow(DoubleBuffer[] windows) {
+        if (windows.length > 1) {
+            throw new IllegalStateException("Колонка не помещается в одно окно отображения, используйте forEachChunk");
+        }
+        return windows[0];
+    }
+
+    // Проходит по всем точкам по порядку блоками до CHUNK_POINTS точек
+    public void forEachChunk(ChunkConsumer consumer) {
+        double[] xs = new double[(int) Math.min(CHUNK_POINTS, Math.max(count, 1))];
+        double[] ys = new double[xs.length];
+        for (int w = 0; w < xWindows.length; w++) {
+            DoubleBuffer xWindow = xWindows[w].duplicate();
+            DoubleBuffer yWindow = yWindows[w].duplicate();
+            while (xWindow.hasRemaining()) {
+                int length = Math.min(xs.length, xWindow.remaining());
+                xWindow.get(xs, 0, length);
+                yWindow.get(ys, 0, length);
+                consumer.accept(xs, ys, length);
+            }
+        }
+    }
+
+    public PointSet toPointSet() {
+        if (count > MAX_POINT_SET_SIZE) {
+            throw new IllegalStateException("Слишком много точек для загрузки в память: " + count);
+        }
+        return toPointSet(MAX_POINT_SET_SIZE);
+    }
+
+    public PointSet toPointSet(int limit) {
+        int n = (int) Math.min(count, limit);
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        int offset = 0;
+        for (int w = 0; w < xWindows.length && offset < n; w++) {
+            int length = Math.min(xWindows[w].capacity(), n - offset);
+            xWindows[w].duplicate().get(xs, offset, length);
+            yWindows[w].duplicate().get(ys, offset, length);
+            offset += length;
+        }
+        return new PointSet(xs, ys, n);
+    }
+}
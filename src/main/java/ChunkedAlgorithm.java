@@ -0,0 +1,73 @@
+import java.util.Arrays;
+
+// Аппроксимация точек двоичного файла, не загружая их в кучу: каждый проход читает
+// файл блоками через BinaryPointFile.forEachChunk в буферы постоянного размера, так что
+// память и паузы сборщика не зависят от числа точек. Проходы те же, что у Algorithm:
+// статистики (не нужен, если они есть в заголовке), по проходу на итерацию
+// Левенберга — Марквардта для EXP и POWER и проход для их остатков.
+public class ChunkedAlgorithm {
+
+    public static FitStatistics statistics(BinaryPointFile file) {
+        if (file.hasStatistics()) {
+            return file.getStatistics();
+        }
+        FitStatistics stats = new FitStatistics();
+        file.forEachChunk((xs, ys, count) -> stats.addAll(xs, ys, 0, count));
+        return stats;
+    }
+
+    public static FittedModel fit(FunctionType type, BinaryPointFile file) {
+        return fit(type, statistics(file), file);
+    }
+
+    // null для BEST, если ни одна модель не дала конечного отклонения
+    public static FittedModel fit(FunctionType type, FitStatistics stats, BinaryPointFile file) {
+        switch (type) {
+            case LINEAR:
+            case POLY2:
+            case POLY3:
+            case LOG:
+                return FittedModel.of(type, stats.coefficients(type));
+            case EXP:
+            case POWER:
+                return FittedModel.of(type, refine(type, file, stats.coefficients(type)));
+            case BEST:
+                return fitBest(stats, file);
+            default:
+                throw new IllegalArgumentException("Неизвестный тип функции");
+        }
+    }
+
+    public static FittedModel fitBest(FitStatistics stats, BinaryPointFile file) {
+        double[] expCoeffs = refine(FunctionType.EXP, file, stats.coefficients(FunctionType.EXP));
+        double[] powerCoeffs = refine(FunctionType.POWER, file, stats.coefficients(FunctionType.POWER));
+        FittedModel exp = FittedModel.of(FunctionType.EXP, expCoeffs);
+        FittedModel power = FittedModel.of(FunctionType.POWER, powerCoeffs);
+        double[] nonlinearDeviations = new double[2];
+        file.forEachChunk((xs, ys, count) -> {
+            nonlinearDeviations[0] += exp.deviation(xs, ys, 0, count);
+            nonlinearDeviations[1] += power.deviation(xs, ys, 0, count);
+        });
+        FunctionType bestType = Algorithm.selectBestFit(stats, nonlinearDeviations, model -> residuals(model, file));
+        return Algorithm.bestModel(stats, bestType, expCoeffs, powerCoeffs);
+    }
+
+    // По статистикам; для EXP и POWER и при ненадёжном по моментам остатке — проход по файлу
+    public static double deviation(FittedModel model, FitStatistics stats, BinaryPointFile file) {
+        return stats.deviation(model.getType(), model.getCoefficients(), m -> residuals(m, file));
+    }
+
+    private static double residuals(FittedModel model, BinaryPointFile file) {
+        double[] sum = new double[1];
+        file.forEachChunk((xs, ys, count) -> sum[0] += model.deviation(xs, ys, 0, count));
+        return sum[0];
+    }
+
+    private static double[] refine(FunctionType type, BinaryPointFile file, double[] initial) {
+        LevenbergMarquardt.checkType(type);
+        return LevenbergMarquardt.DEFAULT.fit(initial, (a, b, out) -> {
+            Arrays.fill(out, 0);
+            file.forEachChunk((xs, ys, count) -> LevenbergMarquardt.accumulate(type, xs, ys, null, 0, count, a, b, out));
+        });
+    }
+}
@@ -1,13 +1,29 @@
 import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 
+// Сообщения копятся в буфере и попадают в документ одной вставкой за кадр EDT,
+// сколько бы раз ни вызывался print. В документе хранятся последние MAX_LINES строк:
+// когда их становится больше на TRIM_CHUNK, старые удаляются одним блоком, так что
+// на строку приходится O(1) работы, а размер документа ограничен.
 public class ConsolePanel extends JPanel {
+    private static final int MAX_LINES = 5000;
+    private static final int TRIM_CHUNK = 1000;
 
     private JTextArea textArea;
     private JScrollPane scrollPane;
 
+    // Ещё не выведенный текст; print можно вызывать из любого потока
+    private final Object lock = new Object();
+    private StringBuilder pending = new StringBuilder();
+    private boolean flushScheduled;
+
+    // Длины строк документа вместе с переводом строки, от старых к новым (только EDT)
+    private final int[] lineLengths = new int[MAX_LINES + TRIM_CHUNK];
+    private int firstLine;
+    private int lineCount;
+
     public ConsolePanel() {
         setLayout(new BorderLayout());
         textArea = new JTextArea(10, 30);
@@ -22,7 +38,63 @@ public class ConsolePanel extends JPanel {
     }
 
     public void print(String message) {
-        textArea.append(message + "\n");
+        synchronized (lock) {
+            pending.append(message).append('\n');
+            if (flushScheduled) return;
+            flushScheduled = true;
+        }
+        SwingUtilities.invokeLater(this::flush);
+    }
+
+    private void flush() {
+        String text;
+        synchronized (lock) {
+            text = pending.toString();
+            pending = new StringBuilder();
+            flushScheduled = false;
+        }
+
+        int newLines = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') newLines++;
+        }
+
+        int start = 0;
+        if (lineCount + newLines > lineLengths.length) {
+            int excess = lineCount + newLines - MAX_LINES;
+            int removedLines = Math.min(excess, lineCount);
+            int removedChars = 0;
+            for (int k = 0; k < removedLines; k++) {
+                removedChars += lineLengths[firstLine];
+                firstLine = (firstLine + 1) % lineLengths.length;
+            }
+            lineCount -= removedLines;
+            removeLeading(removedChars);
+            // Пачка длиннее всего хранимого: её начало сразу отбрасывается
+            for (int k = removedLines; k < excess; k++) {
+                start = text.indexOf('\n', start) + 1;
+            }
+        }
+
+        int lineStart = start;
+        for (int i = start; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lineLengths[(firstLine + lineCount) % lineLengths.length] = i + 1 - lineStart;
+                lineCount++;
+                lineStart = i + 1;
+            }
+        }
+        textArea.append(text.substring(start));
         textArea.setCaretPosition(textArea.getDocument().getLength());
     }
+
+    private void removeLeading(int length) {
+        if (length == 0) return;
+        Document document = textArea.getDocument();
+        try {
+            document.remove(0, length);
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -1,13 +1,25 @@
 import javax.swing.*;
+import javax.swing.event.TableModelListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.*;
-import java.util.ArrayList;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Objects;
-import java.util.Scanner;
-
+import java.util.concurrent.ExecutionException;
+
+// Файл читается в два шага: в EDT — не больше PREVIEW_POINTS точек, чтобы таблица
+// заполнилась сразу, а если в файле есть ещё точки, в SwingWorker дочитывается не больше
+// TABLE_POINTS точек и заменяет предпросмотр. Пока он читается, кнопка загрузки недоступна;
+// если таблицу за это время изменили, правки не затираются без спроса.
+// Двоичный файл в кучу не копируется: в таблице остаётся предпросмотр, а подбор идёт
+// по файлу блоками (ChunkedAlgorithm).
 public class FileLoaderPanel extends JPanel {
+    static final int PREVIEW_POINTS = 10_000;
+    // Больше точек текстового файла таблица не принимает: остаток файла не читается
+    static final int TABLE_POINTS = 1_000_000;
+
     private JTextField fileNameField;
     private JButton loadButton;
     private PointsInputPanel pointsInputPanel;
@@ -49,52 +61,79 @@ public class FileLoaderPanel extends JPanel {
             return;
         }
 
-        ArrayList<Point> points = new ArrayList<>();
-
-        try (Scanner scanner = new Scanner(file)) {
-            while (scanner.hasNext()) {
-                if (points.size() >= 12) {
-                    System.out.println("Больше 12 точек в файле, лишние будут проигнорированы.");
-                    break;
-                }
-
-                if (scanner.hasNextInt()) {
-                    int x = scanner.nextInt();
-                    if (scanner.hasNextInt()) {
-                        int y = scanner.nextInt();
-                        points.add(new Point(x, y));
-                    } else {
-                        System.out.println("Некорректный формат данных в файле.");
-                        JOptionPane.showMessageDialog(this, "Некорректный формат данных в файле!", "Ошибка", JOptionPane.ERROR_MESSAGE);
-                        return;
-                    }
-                }
+        Path path = file.toPath();
+        PointSet points;
+        BinaryPointFile binary = null;
+        try {
+            if (BinaryPointFile.isBinary(path)) {
+                binary = BinaryPointFile.open(path);
+                points = binary.toPointSet(PREVIEW_POINTS);
+            } else {
+                // На одну точку больше лимита, чтобы понять, есть ли в файле ещё точки
+                points = PointFileLoader.load(path, PREVIEW_POINTS + 1);
             }
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Ошибка", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
-            if (points.size() < 8) {
-                JOptionPane.showMessageDialog(this, "Недостаточно точек (минимум 8).", "Ошибка", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
+        if (points.size() < PointsInputPanel.MIN_POINTS) {
+            JOptionPane.showMessageDialog(this, "Недостаточно точек (минимум " + PointsInputPanel.MIN_POINTS + ").",
+                    "Ошибка", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
-            while (pointsInputPanel.getXFields().size() < points.size()) {
-                pointsInputPanel.addPointFields();
-            }
+        if (binary != null) {
+            pointsInputPanel.setPoints(points, binary);
+            return;
+        }
+        if (points.size() <= PREVIEW_POINTS) {
+            pointsInputPanel.setPoints(points);
+            return;
+        }
+        pointsInputPanel.setPoints(new PointSet(points.getXs(), points.getYs(), PREVIEW_POINTS));
+        startFullLoad(path);
+    }
 
-            for (int i = 0; i < points.size(); i++) {
-                JTextField xField = pointsInputPanel.getXField(i);
-                JTextField yField = pointsInputPanel.getYField(i);
-                xField.setText(String.valueOf(points.get(i).x));
-                yField.setText(String.valueOf(points.get(i).y));
+    private void startFullLoad(Path path) {
+        loadButton.setEnabled(false);
+        PointTableModel model = pointsInputPanel.getModel();
+        boolean[] edited = {false};
+        TableModelListener editListener = e -> edited[0] = true;
+        model.addTableModelListener(editListener);
+        new SwingWorker<PointSet, Void>() {
+            @Override
+            protected PointSet doInBackground() throws IOException {
+                // На одну точку больше лимита, чтобы понять, обрезан ли файл
+                return PointFileLoader.load(path, TABLE_POINTS + 1);
             }
 
-            pointsInputPanel.revalidate();
-            pointsInputPanel.repaint();
-
-        } catch (FileNotFoundException e) {
-            System.out.println("Файл не найден: " + fileName);
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Ошибка при чтении файла.", "Ошибка", JOptionPane.ERROR_MESSAGE);
-        }
+            @Override
+            protected void done() {
+                model.removeTableModelListener(editListener);
+                loadButton.setEnabled(true);
+                try {
+                    PointSet points = get();
+                    if (edited[0] && JOptionPane.showConfirmDialog(FileLoaderPanel.this,
+                            "Таблица изменена, пока файл загружался. Заменить её точками файла?",
+                            "Загрузка файла", JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+                        return;
+                    }
+                    if (points.size() > TABLE_POINTS) {
+                        points = new PointSet(points.getXs(), points.getYs(), TABLE_POINTS);
+                        JOptionPane.showMessageDialog(FileLoaderPanel.this,
+                                "В таблицу загружены первые " + TABLE_POINTS + " точек файла.",
+                                "Загрузка файла", JOptionPane.WARNING_MESSAGE);
+                    }
+                    pointsInputPanel.setPoints(points);
+                } catch (ExecutionException e) {
+                    JOptionPane.showMessageDialog(FileLoaderPanel.this, e.getCause().getMessage(),
+                            "Ошибка", JOptionPane.ERROR_MESSAGE);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }.execute();
     }
 }
@@ -0,0 +1,127 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Кэш результатов аппроксимации с вытеснением давно не использованных записей.
+// Ключ — отпечаток содержимого набора точек, запрошенный тип функции и критерий
+// выбора для BEST, поэтому повторный расчёт на неизменных данных и переключение между
+// типами не пересчитывают уже подобранные функции. Результат хранится только под
+// запрошенным ключом: у BEST другие показатели (например, число обусловленности
+// полинома не считается), и под ключом выбранного типа он подменил бы обычный расчёт.
+public class FitCache {
+    private final int capacity;
+    private final LinkedHashMap<Key, FitResult> entries;
+    private long hits;
+    private long misses;
+
+    public FitCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Размер кэша должен быть положительным");
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, FitResult> eldest) {
+                return size() > FitCache.this.capacity;
+            }
+        };
+    }
+
+    // Расчёт на промахе идёт без блокировки: два потока с одинаковым ключом
+    // могут посчитать одно и то же, но не ждут друг друга
+    public FitResult fit(FunctionType type, PointSet points) {
+        return fit(type, points, SelectionCriterion.DEVIATION);
+    }
+
+    public FitResult fit(FunctionType type, PointSet points, SelectionCriterion criterion) {
+        // Критерий влияет только на BEST, для остальных типов записи общие
+        if (type != FunctionType.BEST) {
+            criterion = SelectionCriterion.DEVIATION;
+        }
+        Key key = new Key(fingerprint(points), points.size(), type, criterion);
+        synchronized (this) {
+            FitResult cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+
+        FitResult result = FitResult.compute(type, points, criterion);
+        // Прерванный поток — отменённый расчёт: его результат никто не ждёт
+        if (Thread.currentThread().isInterrupted()) {
+            return result;
+        }
+        synchronized (this) {
+            entries.put(key, result);
+        }
+        return result;
+    }
+
+    // 64-битный хэш битовых представлений всех координат за один проход.
+    // Совпадение отпечатков при одинаковом размере считается совпадением данных.
+    public static long fingerprint(PointSet points) {
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        long h = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < points.size(); i++) {
+            h = mix(h ^ Double.doubleToLongBits(xs[i]));
+            h = mix(h ^ Double.doubleToLongBits(ys[i]));
+        }
+        return h;
+    }
+
+    private static long mix(long h) {
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 31);
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    private static final class Key {
+        private final long fingerprint;
+        private final int size;
+        private final FunctionType type;
+        private final SelectionCriterion criterion;
+
+        Key(long fingerprint, int size, FunctionType type, SelectionCriterion criterion) {
+            this.fingerprint = fingerprint;
+            this.size = size;
+            this.type = type;
+            this.criterion = criterion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return fingerprint == other.fingerprint && size == other.size && type == other.type
+                    && criterion == other.criterion;
+        }
+
+        @Override
+        public int hashCode() {
+            return (Long.hashCode(fingerprint) * 31 + type.hashCode()) * 31 + criterion.hashCode();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+// Результат аппроксимации набора точек: подобранная функция и показатели качества.
+// Для BEST type — выбранная функция.
+public class FitResult {
+    private final FittedModel model;
+    private final double r2;
+    private final double deviation;
+    private final double pearson;
+    private final double conditionNumber;
+
+    public FitResult(FittedModel model, double r2, double deviation, double pearson) {
+        this(model, r2, deviation, pearson, Double.NaN);
+    }
+
+    // conditionNumber — решённой системы (PolynomialSolver.Solution), NaN, если не считалось
+    public FitResult(FittedModel model, double r2, double deviation, double pearson, double conditionNumber) {
+        this.model = model;
+        this.r2 = r2;
+        this.deviation = deviation;
+        this.pearson = pearson;
+        this.conditionNumber = conditionNumber;
+    }
+
+    public static FitResult compute(FunctionType type, PointSet points) {
+        return compute(type, points, SelectionCriterion.DEVIATION);
+    }
+
+    // criterion используется только для BEST
+    public static FitResult compute(FunctionType type, PointSet points, SelectionCriterion criterion) {
+        long started = StageMetrics.start();
+        FittedModel model;
+        double conditionNumber = Double.NaN;
+        if (type == FunctionType.BEST) {
+            model = Algorithm.fitBest(points, criterion);
+            if (model == null) {
+                throw new IllegalStateException("Не удалось подобрать функцию");
+            }
+        } else if (type == FunctionType.POLY2 || type == FunctionType.POLY3) {
+            PolynomialSolver.Solution solution = PolynomialSolver.DEFAULT.fit(points, type == FunctionType.POLY2 ? 2 : 3);
+            model = FittedModel.of(type, solution.getCoefficients());
+            conditionNumber = solution.getConditionNumber();
+        } else {
+            model = FittedModel.of(type, Algorithm.approximate(type, points));
+        }
+        StageMetrics.stop(StageMetrics.Stage.FIT, started);
+
+        started = StageMetrics.start();
+        double deviation = model.deviation(points);
+        FitResult result = new FitResult(model,
+                Algorithm.calculateR2(points, deviation),
+                deviation,
+                Algorithm.calculatePearsonCorrelation(points),
+                conditionNumber);
+        StageMetrics.stop(StageMetrics.Stage.STATISTICS, started);
+        return result;
+    }
+
+    // Точки файла не загружаются в кучу: каждый проход читает его блоками
+    public static FitResult compute(FunctionType type, BinaryPointFile file) {
+        long started = StageMetrics.start();
+        FitStatistics stats = ChunkedAlgorithm.statistics(file);
+        FittedModel model = ChunkedAlgorithm.fit(type, stats, file);
+        if (model == null) {
+            throw new IllegalStateException("Не удалось подобрать функцию");
+        }
+        StageMetrics.stop(StageMetrics.Stage.FIT, started);
+
+        started = StageMetrics.start();
+        double deviation = ChunkedAlgorithm.deviation(model, stats, file);
+        FitResult result = new FitResult(model, 1 - deviation / stats.totalSumOfSquares(), deviation,
+                stats.pearsonCorrelation(), stats.conditionNumber(type));
+        StageMetrics.stop(StageMetrics.Stage.STATISTICS, started);
+        return result;
+    }
+
+    public FittedModel getModel() {
+        return model;
+    }
+
+    public FunctionType getType() {
+        return model.getType();
+    }
+
+    public double[] getCoefficients() {
+        return model.getCoefficients();
+    }
+
+    public double getR2() {
+        return r2;
+    }
+
+    public double getDeviation() {
+        return deviation;
+    }
+
+    public double getPearson() {
+        return pearson;
+    }
+
+    public double getConditionNumber() {
+        return conditionNumber;
+    }
+
+    public boolean isIllConditioned() {
+        return conditionNumber > PolynomialSolver.ILL_CONDITIONED;
+    }
+}
@@ -0,0 +1,328 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Локальный HTTP-сервис подбора функций. Слушает только петлевой интерфейс.
+//   POST /fit?type=T&criterion=C — точки в теле: JSON (см. PointJsonReader) или, при
+//        Content-Type: application/octet-stream, пары x, y подряд как double little-endian.
+//        Ответ — функция, коэффициенты, R², отклонение и коэффициент Пирсона.
+//   GET /stats — число запросов, пропускная способность и задержки этапов из StageMetrics.
+// Запросы обрабатывает пул из threads потоков: подбор занимает процессор, и потоков
+// больше, чем ядер, ему не нужно.
+public class FitServer {
+    public static final int DEFAULT_PORT = 8085;
+
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final String BINARY = "application/octet-stream";
+    private static final int BINARY_BUFFER = 1 << 16;
+    private static final int MAX_POINTS = Integer.MAX_VALUE - 8;
+    // Content-Length задаёт клиент, поэтому по нему выделяется не больше, чем в
+    // PointJsonReader; дальше массивы растут по фактически полученным байтам
+    private static final int MAX_INITIAL_POINTS = 1 << 24;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long startedNanos = System.nanoTime();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder points = new LongAdder();
+
+    public FitServer(int port, int threads) throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Число потоков должно быть положительным");
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "fit-server-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/fit", this::handleFit);
+        server.createContext("/stats", this::handleStats);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--serve":
+                        break;
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException();
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Использование: --serve [--port N] [--threads N]");
+            System.exit(2);
+            return;
+        }
+
+        try {
+            FitServer fitServer = new FitServer(port, threads);
+            StageMetrics.register();
+            fitServer.start();
+            InetSocketAddress address = fitServer.getAddress();
+            System.err.println("Сервис подбора: http://" + address.getHostString() + ":" + address.getPort() + "/fit");
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Не удалось запустить сервис: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        // Потоки сервера — демоны, main держит процесс до завершения
+        try {
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handleFit(HttpExchange exchange) throws IOException {
+        long started = StageMetrics.start();
+        requests.increment();
+        try (exchange) {
+            try {
+                fit(exchange, System.nanoTime());
+            } catch (RuntimeException e) {
+                sendError(exchange, 500, String.valueOf(e.getMessage()));
+            }
+        } finally {
+            StageMetrics.stop(StageMetrics.Stage.REQUEST, started);
+        }
+    }
+
+    // received — момент начала обработки по System.nanoTime()
+    private void fit(HttpExchange exchange, long received) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", "POST");
+            sendError(exchange, 405, "Ожидается POST");
+            return;
+        }
+
+        FunctionType type = FunctionType.BEST;
+        SelectionCriterion criterion = SelectionCriterion.DEVIATION;
+        try {
+            String query = exchange.getRequestURI().getRawQuery();
+            if (query != null) {
+                for (String parameter : query.split("&")) {
+                    int eq = parameter.indexOf('=');
+                    if (eq < 0) continue;
+                    String name = parameter.substring(0, eq);
+                    String value = URLDecoder.decode(parameter.substring(eq + 1), StandardCharsets.UTF_8);
+                    if (name.equals("type")) {
+                        type = BatchRunner.parseType(value);
+                    } else if (name.equals("criterion")) {
+                        criterion = BatchRunner.parseCriterion(value);
+                    }
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, "Неизвестный тип функции или критерий");
+            return;
+        }
+
+        PointSet pointSet;
+        long parseStarted = StageMetrics.start();
+        try {
+            pointSet = readPoints(exchange);
+        } catch (IOException e) {
+            sendError(exchange, 400, String.valueOf(e.getMessage()));
+            return;
+        }
+        StageMetrics.stop(StageMetrics.Stage.PARSE, parseStarted);
+        if (pointSet.size() < 2) {
+            sendError(exchange, 400, "Нужно хотя бы две точки");
+            return;
+        }
+        points.add(pointSet.size());
+
+        long fitStarted = System.nanoTime();
+        FitResult result;
+        try {
+            result = FitResult.compute(type, pointSet, criterion);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            sendError(exchange, 422, String.valueOf(e.getMessage()));
+            return;
+        }
+        double fitMillis = (System.nanoTime() - fitStarted) / 1e6;
+        send(exchange, 200, resultJson(result, pointSet.size(),
+                (fitStarted - received) / 1e6, fitMillis));
+    }
+
+    private PointSet readPoints(HttpExchange exchange) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        long length = contentLength(exchange);
+        InputStream body = exchange.getRequestBody();
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith(BINARY)) {
+            return readBinary(body, length);
+        }
+        // Начальная ёмкость: пара чисел в JSON обычно занимает не меньше 16 байт
+        int hint = length > 0 ? (int) Math.min(MAX_POINTS, length / 16) : 0;
+        return PointJsonReader.read(body, hint);
+    }
+
+    // Пары x, y как double little-endian; длина тела должна делиться на 16
+    private static PointSet readBinary(InputStream body, long length) throws IOException {
+        if (length > 0 && length % 16 != 0) {
+            throw new IOException("Длина тела " + length + " байт не кратна размеру пары (16 байт)");
+        }
+        int capacity = length > 0 ? (int) Math.min(MAX_INITIAL_POINTS, length / 16) : 1024;
+        double[] xs = new double[Math.max(capacity, 1)];
+        double[] ys = new double[xs.length];
+        int count = 0;
+
+        byte[] bytes = new byte[BINARY_BUFFER];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        int filled = 0;
+        int read;
+        while ((read = body.read(bytes, filled, bytes.length - filled)) != -1) {
+            filled += read;
+            int pairs = filled / 16;
+            if (count + (long) pairs > xs.length) {
+                if (count + (long) pairs > MAX_POINTS) {
+                    throw new IOException("Слишком много точек");
+                }
+                int grown = (int) Math.min(MAX_POINTS, Math.max(count + (long) pairs, xs.length * 2L));
+                try {
+                    xs = Arrays.copyOf(xs, grown);
+                    ys = Arrays.copyOf(ys, grown);
+                } catch (OutOfMemoryError e) {
+                    throw new IOException("Недостаточно памяти для " + grown + " точек");
+                }
+            }
+            for (int i = 0; i < pairs; i++) {
+                xs[count] = buffer.getDouble(i * 16);
+                ys[count] = buffer.getDouble(i * 16 + 8);
+                count++;
+            }
+            // Неполная пара переносится в начало буфера
+            int rest = filled - pairs * 16;
+            System.arraycopy(bytes, pairs * 16, bytes, 0, rest);
+            filled = rest;
+        }
+        if (filled != 0) {
+            throw new IOException("Длина тела не кратна размеру пары (16 байт)");
+        }
+        return new PointSet(xs, ys, count);
+    }
+
+    private static long contentLength(HttpExchange exchange) {
+        String value = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (value == null) return -1;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                sendError(exchange, 405, "Ожидается GET");
+                return;
+            }
+            double uptime = (System.nanoTime() - startedNanos) / 1e9;
+            long requestCount = requests.sum();
+            long pointCount = points.sum();
+            StringBuilder sb = new StringBuilder("{");
+            sb.append("\"uptime_s\":").append(String.format(Locale.ROOT, "%.3f", uptime));
+            sb.append(",\"requests\":").append(requestCount);
+            sb.append(",\"failures\":").append(failures.sum());
+            sb.append(",\"points\":").append(pointCount);
+            sb.append(",\"requests_per_s\":").append(String.format(Locale.ROOT, "%.3f", requestCount / uptime));
+            sb.append(",\"points_per_s\":").append(String.format(Locale.ROOT, "%.1f", pointCount / uptime));
+            sb.append(",\"metrics_enabled\":").append(StageMetrics.getInstance().isEnabled());
+            sb.append(",\"stages\":[");
+            boolean first = true;
+            for (StageMetrics.StageSnapshot s : StageMetrics.getInstance().getStages()) {
+                if (s.getCount() == 0) continue;
+                if (!first) sb.append(',');
+                first = false;
+                sb.append("{\"stage\":").append(BatchRunner.jsonString(s.getStage()));
+                sb.append(",\"count\":").append(s.getCount());
+                sb.append(",\"mean_ms\":").append(BatchRunner.jsonNumber(s.getMeanMillis()));
+                sb.append(",\"p50_ms\":").append(BatchRunner.jsonNumber(s.getP50Millis()));
+                sb.append(",\"p90_ms\":").append(BatchRunner.jsonNumber(s.getP90Millis()));
+                sb.append(",\"p99_ms\":").append(BatchRunner.jsonNumber(s.getP99Millis()));
+                sb.append(",\"max_ms\":").append(BatchRunner.jsonNumber(s.getMaxMillis()));
+                sb.append('}');
+            }
+            sb.append("]}");
+            send(exchange, 200, sb.toString());
+        }
+    }
+
+    private static String resultJson(FitResult result, int size, double parseMillis, double fitMillis) {
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"points\":").append(size);
+        sb.append(",\"function\":").append(BatchRunner.jsonString(result.getType().name()));
+        sb.append(",\"name\":").append(BatchRunner.jsonString(result.getType().getName()));
+        sb.append(",\"coefficients\":[");
+        double[] coeffs = result.getCoefficients();
+        for (int i = 0; i < coeffs.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(BatchRunner.jsonNumber(coeffs[i]));
+        }
+        sb.append(']');
+        sb.append(",\"r2\":").append(BatchRunner.jsonNumber(result.getR2()));
+        sb.append(",\"deviation\":").append(BatchRunner.jsonNumber(result.getDeviation()));
+        sb.append(",\"pearson\":").append(BatchRunner.jsonNumber(result.getPearson()));
+        sb.append(",\"condition\":").append(BatchRunner.jsonNumber(result.getConditionNumber()));
+        sb.append(",\"parse_ms\":").append(String.format(Locale.ROOT, "%.3f", parseMillis));
+        sb.append(",\"fit_ms\":").append(String.format(Locale.ROOT, "%.3f", fitMillis));
+        return sb.append('}').toString();
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        failures.increment();
+        send(exchange, status, "{\"error\":" + BatchRunner.jsonString(message) + "}");
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,513 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Суммы для коэффициентов всех моделей за один проход. Суммы копятся не по x и y, а по
+// t = x − shiftX, u = y − shiftY и v = ln x − logShiftX, где (shiftX, shiftY) — первая
+// добавленная точка, а logShiftX = ln shiftX (0, если shiftX ≤ 0): на данных со смещением
+// (x ≈ 10^4, метки времени) суммы Σx^k до x^6 и Σ(ln x)² теряют все значащие цифры,
+// а суммы по сдвинутым величинам — нет. Коэффициенты переводятся к x и y только в конце.
+public class FitStatistics {
+    private static final int MAX_DEGREE = 3;
+
+    // Без логарифмических сумм доступны только LINEAR, POLY2 и POLY3
+    private final boolean logSums;
+
+    private long count;
+    private double shiftX;
+    private double shiftY;
+    private double logShiftX;
+    // powerSums[k] = Σt^k (k = 0..6), momentSums[k] = Σt^k·u (k = 0..3), sumU2 = Σu²
+    private final double[] powerSums = new double[2 * MAX_DEGREE + 1];
+    private final double[] momentSums = new double[MAX_DEGREE + 1];
+    private double sumU2;
+
+    // EXP: только точки с y > 0
+    private long expCount;
+    private double expSumT, expSumT2, expSumLogY, expSumTLogY, expSumLogY2;
+
+    // LOG: только точки с x > 0
+    private long logCount;
+    private double logSumV, logSumV2, logSumU, logSumVU;
+
+    // POWER: только точки с x > 0 и y > 0
+    private long powerCount;
+    private double powerSumV, powerSumV2, powerSumLogY, powerSumVLogY, powerSumLogY2;
+
+    public FitStatistics() {
+        this(true);
+    }
+
+    FitStatistics(boolean logSums) {
+        this.logSums = logSums;
+    }
+
+    public static FitStatistics of(PointSet points) {
+        FitStatistics stats = new FitStatistics();
+        stats.addAll(points.getXs(), points.getYs(), 0, points.size());
+        return stats;
+    }
+
+    void addAll(double[] xs, double[] ys, int from, int to) {
+        for (int i = from; i < to; i++) {
+            accumulate(xs[i], ys[i], 1);
+        }
+    }
+
+    // Слияние ассоциативно: результат зависит только от порядка слияний, а не от потоков.
+    // Суммы other пересчитываются к сдвигам этих статистик: t' = t + d, u' = u + e,
+    // v' = v + f, Σt'^k = Σ_j C(k, j)·d^(k−j)·Σt^j. Сдвиги — точки из данных, поэтому
+    // d не больше размаха x и пересчёт не теряет точности.
+    public void merge(FitStatistics other) {
+        if (logSums != other.logSums) {
+            throw new IllegalArgumentException("Статистики собраны в разных режимах");
+        }
+        if (other.count == 0) return;
+        if (count == 0) {
+            setShift(other.shiftX, other.shiftY);
+        }
+        double d = other.shiftX - shiftX;
+        double e = other.shiftY - shiftY;
+        double f = other.logShiftX - logShiftX;
+
+        count += other.count;
+        sumU2 += other.sumU2 + 2 * e * other.momentSums[0] + e * e * other.powerSums[0];
+        for (int k = 0; k < momentSums.length; k++) {
+            momentSums[k] += shifted(other.momentSums, k, d) + e * shifted(other.powerSums, k, d);
+        }
+        for (int k = 0; k < powerSums.length; k++) {
+            powerSums[k] += shifted(other.powerSums, k, d);
+        }
+
+        expCount += other.expCount;
+        expSumT += other.expSumT + d * other.expCount;
+        expSumT2 += other.expSumT2 + 2 * d * other.expSumT + d * d * other.expCount;
+        expSumLogY += other.expSumLogY;
+        expSumTLogY += other.expSumTLogY + d * other.expSumLogY;
+        expSumLogY2 += other.expSumLogY2;
+
+        logCount += other.logCount;
+        logSumV += other.logSumV + f * other.logCount;
+        logSumV2 += other.logSumV2 + 2 * f * other.logSumV + f * f * other.logCount;
+        logSumU += other.logSumU + e * other.logCount;
+        logSumVU += other.logSumVU + e * other.logSumV + f * other.logSumU + e * f * other.logCount;
+
+        powerCount += other.powerCount;
+        powerSumV += other.powerSumV + f * other.powerCount;
+        powerSumV2 += other.powerSumV2 + 2 * f * other.powerSumV + f * f * other.powerCount;
+        powerSumLogY += other.powerSumLogY;
+        powerSumVLogY += other.powerSumVLogY + f * other.powerSumLogY;
+        powerSumLogY2 += other.powerSumLogY2;
+    }
+
+    // Переносит суммы к сдвигу (x, y) теми же формулами, что и merge. Если из статистик
+    // удаляют старые точки и добавляют новые со всё большими x, t = x − shiftX уходит от
+    // данных, и суммы теряют точность, как без сдвига; опустевшие статистики берут сдвиг
+    // от следующей точки сами, а здесь сдвиг переносится к среднему, пока точки ещё есть.
+    // Переносится, когда среднее t дальше двух стандартных отклонений t от нуля.
+    void recenter() {
+        if (count <= 0) return;
+        double meanT = powerSums[1] / count;
+        double varianceT = powerSums[2] / count - meanT * meanT;
+        if (meanT * meanT <= 4 * varianceT) return;
+
+        double x = shiftX + meanT;
+        double y = shiftY + momentSums[0] / count;
+        double d = shiftX - x;
+        double e = shiftY - y;
+        double logShift = Algorithm.logShift(x);
+        double f = logShiftX - logShift;
+
+        // Старшие суммы сначала: shifted читает младшие, ещё не пересчитанные
+        sumU2 += 2 * e * momentSums[0] + e * e * count;
+        for (int k = momentSums.length - 1; k >= 0; k--) {
+            momentSums[k] = shifted(momentSums, k, d) + e * shifted(powerSums, k, d);
+        }
+        for (int k = powerSums.length - 1; k >= 0; k--) {
+            powerSums[k] = shifted(powerSums, k, d);
+        }
+
+        expSumT2 += 2 * d * expSumT + d * d * expCount;
+        expSumTLogY += d * expSumLogY;
+        expSumT += d * expCount;
+
+        logSumVU += e * logSumV + f * logSumU + e * f * logCount;
+        logSumV2 += 2 * f * logSumV + f * f * logCount;
+        logSumV += f * logCount;
+        logSumU += e * logCount;
+
+        powerSumV2 += 2 * f * powerSumV + f * f * powerCount;
+        powerSumVLogY += f * powerSumLogY;
+        powerSumV += f * powerCount;
+
+        shiftX = x;
+        shiftY = y;
+        logShiftX = logShift;
+    }
+
+    // Σ(t + d)^k по суммам Σt^j, j ≤ k
+    private static double shifted(double[] sums, int k, double d) {
+        if (d == 0) return sums[k];
+        double value = 0;
+        // factor = C(k, j)·d^(k−j)
+        double factor = 1;
+        for (int j = k; j >= 0; j--) {
+            value += factor * sums[j];
+            factor *= d * j / (k - j + 1);
+        }
+        return value;
+    }
+
+    public void add(double x, double y) {
+        accumulate(x, y, 1);
+    }
+
+    // Точка должна была быть добавлена ранее, иначе суммы потеряют смысл
+    public void remove(double x, double y) {
+        if (count == 0) {
+            throw new IllegalStateException("Нет точек для удаления");
+        }
+        accumulate(x, y, -1);
+    }
+
+    public void clear() {
+        count = 0;
+        Arrays.fill(powerSums, 0);
+        Arrays.fill(momentSums, 0);
+        sumU2 = 0;
+        expCount = 0;
+        expSumT = expSumT2 = expSumLogY = expSumTLogY = expSumLogY2 = 0;
+        logCount = 0;
+        logSumV = logSumV2 = logSumU = logSumVU = 0;
+        powerCount = 0;
+        powerSumV = powerSumV2 = powerSumLogY = powerSumVLogY = powerSumLogY2 = 0;
+    }
+
+    // Сбрасывает суммы: сдвиг меняется только у пустых статистик
+    private void setShift(double x, double y) {
+        clear();
+        shiftX = x;
+        shiftY = y;
+        logShiftX = Algorithm.logShift(x);
+    }
+
+    private void accumulate(double x, double y, int sign) {
+        // Первая точка (в том числе после удаления всех) задаёт сдвиг
+        if (count == 0 && sign > 0) {
+            setShift(x, y);
+        }
+        count += sign;
+
+        double t = x - shiftX;
+        double u = y - shiftY;
+        double t2 = t * t;
+        double t3 = t2 * t;
+        powerSums[0] += sign;
+        powerSums[1] += sign * t;
+        powerSums[2] += sign * t2;
+        powerSums[3] += sign * t3;
+        powerSums[4] += sign * (t2 * t2);
+        powerSums[5] += sign * (t3 * t2);
+        powerSums[6] += sign * (t3 * t3);
+
+        momentSums[0] += sign * u;
+        momentSums[1] += sign * (t * u);
+        momentSums[2] += sign * (t2 * u);
+        momentSums[3] += sign * (t3 * u);
+        sumU2 += sign * (u * u);
+
+        if (!logSums) return;
+
+        double v = x > 0 ? Math.log(x) - logShiftX : 0;
+        double logY = y > 0 ? Math.log(y) : 0;
+
+        if (y > 0) {
+            expCount += sign;
+            expSumT += sign * t;
+            expSumT2 += sign * t2;
+            expSumLogY += sign * logY;
+            expSumTLogY += sign * (t * logY);
+            expSumLogY2 += sign * (logY * logY);
+        }
+
+        if (x > 0) {
+            logCount += sign;
+            logSumV += sign * v;
+            logSumV2 += sign * (v * v);
+            logSumU += sign * u;
+            logSumVU += sign * (v * u);
+        }
+
+        if (x > 0 && y > 0) {
+            powerCount += sign;
+            powerSumV += sign * v;
+            powerSumV2 += sign * (v * v);
+            powerSumLogY += sign * logY;
+            powerSumVLogY += sign * (v * logY);
+            powerSumLogY2 += sign * (logY * logY);
+        }
+    }
+
+    // Сериализация для заголовка двоичного файла точек: 4 long и 28 double
+    static final int SERIALIZED_SIZE = 4 * Long.BYTES + 28 * Double.BYTES;
+
+    void writeTo(ByteBuffer buffer) {
+        if (!logSums) {
+            throw new IllegalStateException("Логарифмические суммы не накапливались");
+        }
+        buffer.putLong(count).putLong(expCount).putLong(logCount).putLong(powerCount);
+        buffer.putDouble(shiftX).putDouble(shiftY);
+        for (double sum : powerSums) {
+            buffer.putDouble(sum);
+        }
+        for (double sum : momentSums) {
+            buffer.putDouble(sum);
+        }
+        buffer.putDouble(sumU2);
+        buffer.putDouble(expSumT).putDouble(expSumT2).putDouble(expSumLogY).putDouble(expSumTLogY);
+        buffer.putDouble(logSumV).putDouble(logSumV2).putDouble(logSumU).putDouble(logSumVU);
+        buffer.putDouble(powerSumV).putDouble(powerSumV2).putDouble(powerSumLogY).putDouble(powerSumVLogY);
+        buffer.putDouble(expSumLogY2).putDouble(powerSumLogY2);
+    }
+
+    static FitStatistics readFrom(ByteBuffer buffer) {
+        FitStatistics stats = new FitStatistics();
+        long count = buffer.getLong();
+        long expCount = buffer.getLong();
+        long logCount = buffer.getLong();
+        long powerCount = buffer.getLong();
+        double shiftX = buffer.getDouble();
+        double shiftY = buffer.getDouble();
+        stats.setShift(shiftX, shiftY);
+        stats.count = count;
+        stats.expCount = expCount;
+        stats.logCount = logCount;
+        stats.powerCount = powerCount;
+        for (int k = 0; k < stats.powerSums.length; k++) {
+            stats.powerSums[k] = buffer.getDouble();
+        }
+        for (int k = 0; k < stats.momentSums.length; k++) {
+            stats.momentSums[k] = buffer.getDouble();
+        }
+        stats.sumU2 = buffer.getDouble();
+        stats.expSumT = buffer.getDouble();
+        stats.expSumT2 = buffer.getDouble();
+        stats.expSumLogY = buffer.getDouble();
+        stats.expSumTLogY = buffer.getDouble();
+        stats.logSumV = buffer.getDouble();
+        stats.logSumV2 = buffer.getDouble();
+        stats.logSumU = buffer.getDouble();
+        stats.logSumVU = buffer.getDouble();
+        stats.powerSumV = buffer.getDouble();
+        stats.powerSumV2 = buffer.getDouble();
+        stats.powerSumLogY = buffer.getDouble();
+        stats.powerSumVLogY = buffer.getDouble();
+        stats.expSumLogY2 = buffer.getDouble();
+        stats.powerSumLogY2 = buffer.getDouble();
+        return stats;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    double meanX() {
+        return shiftX + powerSums[1] / count;
+    }
+
+    // Среднее ln x по точкам с x > 0
+    double meanLogX() {
+        return logShiftX + logSumV / logCount;
+    }
+
+    double getShiftX() {
+        return shiftX;
+    }
+
+    double getShiftY() {
+        return shiftY;
+    }
+
+    // Σu², u = y − shiftY
+    double sumU2() {
+        return sumU2;
+    }
+
+    // Нормальная система полинома степени degree по t и u: G[i][j] = Σt^(i+j) в
+    // gram[gramOffset ...] по строкам, m[i] = Σt^i·u в rhs[rhsOffset ...].
+    // Решение c переводится к x и y как PolynomialSolver.shiftBasis(c, shiftX), c[0] += shiftY
+    void polynomialSystem(int degree, double[] gram, int gramOffset, double[] rhs, int rhsOffset) {
+        int m = degree + 1;
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                gram[gramOffset + i * m + j] = powerSums[i + j];
+            }
+            rhs[rhsOffset + i] = momentSums[i];
+        }
+    }
+
+    // Коэффициент корреляции не зависит от сдвигов
+    public double pearsonCorrelation() {
+        if (count == 0) return 0;
+        return Algorithm.pearsonCorrelation(count, powerSums[1], momentSums[0], momentSums[1], powerSums[2], sumU2);
+    }
+
+    public double[] coefficients(FunctionType type) {
+        if (!logSums && (type == FunctionType.EXP || type == FunctionType.LOG || type == FunctionType.POWER)) {
+            throw new IllegalStateException("Логарифмические суммы не накапливались");
+        }
+        switch (type) {
+            case LINEAR:
+                return Algorithm.linearCoefficients(count, powerSums[1], momentSums[0], momentSums[1], powerSums[2],
+                        shiftX, shiftY);
+            case POLY2:
+                return polynomialCoefficients(2);
+            case POLY3:
+                return polynomialCoefficients(3);
+            case EXP:
+                return Algorithm.exponentialCoefficients(expCount, expSumT, expSumLogY, expSumTLogY, expSumT2, shiftX);
+            case LOG:
+                return Algorithm.logarithmicCoefficients(logCount, logSumV, logSumU, logSumVU, logSumV2, logShiftX, shiftY);
+            case POWER:
+                return Algorithm.powerCoefficients(powerCount, powerSumV, powerSumLogY, powerSumVLogY, powerSumV2, logShiftX);
+            default:
+                throw new IllegalArgumentException("Неизвестный тип функции");
+        }
+    }
+
+    // Число обусловленности системы, которой coefficients решает POLY2 и POLY3 (как
+    // PolynomialSolver.Solution); NaN для остальных типов. Система m×m решается заново,
+    // прохода по точкам нет
+    public double conditionNumber(FunctionType type) {
+        if (type != FunctionType.POLY2 && type != FunctionType.POLY3) return Double.NaN;
+        int m = (type == FunctionType.POLY2 ? 2 : 3) + 1;
+        return PolynomialSolver.solveNormal(powerSums, momentSums, m, new double[m]);
+    }
+
+    // Тот же решатель, что у PolynomialSolver, по суммам относительно сдвига
+    private double[] polynomialCoefficients(int degree) {
+        int m = degree + 1;
+        double[] c = new double[m];
+        PolynomialSolver.solveNormal(powerSums, momentSums, m, c);
+        PolynomialSolver.shiftBasis(c, 0, m, shiftX);
+        c[0] += shiftY;
+        return c;
+    }
+
+    // p(x) − shiftY по степеням t = x − shiftX
+    private double[] toShiftedBasis(double[] a) {
+        double[] c = a.clone();
+        PolynomialSolver.shiftBasis(c, 0, c.length, -shiftX);
+        c[0] -= shiftY;
+        return c;
+    }
+
+    // Проход по точкам, для которых собраны статистики: сумма квадратов отклонений модели
+    public interface ResidualPass {
+        double deviation(FittedModel model);
+    }
+
+    // Сумма квадратов отклонений S = Σu² − 2·c·m + cᵀ·G·c для моделей, линейных по параметрам,
+    // с коэффициентами, переведёнными к t и u. EXP и POWER через накопленные моменты не выражаются.
+    // NaN, если S сравнима с погрешностью вычитания слагаемых (точная или почти точная
+    // подгонка): тогда верный остаток даёт только проход по точкам.
+    public double deviation(FunctionType type, double[] coeffs) {
+        return momentDeviation(type, coeffs, false);
+    }
+
+    // Для потока, точек которого уже нет (IncrementalFitter без окна): ненадёжную по моментам
+    // S пересчитать нечем, а она не больше погрешности вычитания слагаемых, поэтому
+    // ограничивается нулём — точная подгонка даёт 0 и R² = 1. EXP и POWER — см. logDeviation.
+    public double clampedDeviation(FunctionType type, double[] coeffs) {
+        if (type == FunctionType.EXP || type == FunctionType.POWER) {
+            return logDeviation(type, coeffs);
+        }
+        return momentDeviation(type, coeffs, true);
+    }
+
+    private double momentDeviation(FunctionType type, double[] coeffs, boolean clamp) {
+        switch (type) {
+            case LINEAR:
+                return polynomialDeviation(toShiftedBasis(new double[]{coeffs[1], coeffs[0]}), clamp);
+            case POLY2:
+            case POLY3:
+                return polynomialDeviation(toShiftedBasis(coeffs), clamp);
+            case LOG:
+                if (!logSums) {
+                    throw new IllegalStateException("Логарифмические суммы не накапливались");
+                }
+                if (logCount < count) return Double.NaN;
+                // y = a + b·ln x → u = (a − shiftY + b·logShiftX) + b·v
+                double b = coeffs[1];
+                double a = coeffs[0] - shiftY + b * logShiftX;
+                double[] terms = {sumU2, -2 * a * logSumU, -2 * b * logSumVU,
+                        a * a * count, 2 * a * b * logSumV, b * b * logSumV2};
+                double S = 0;
+                double magnitude = 0;
+                for (double term : terms) {
+                    S += term;
+                    magnitude += Math.abs(term);
+                }
+                return clamp ? Math.max(S, 0) : Algorithm.reliableDeviation(S, magnitude);
+            default:
+                throw new IllegalArgumentException("Отклонение для функции " + type.getName() + " не выражается через моменты");
+        }
+    }
+
+    // Остаток EXP и POWER в логарифмах, Σ(ln y − ln f(x))² по точкам, где логарифм определён:
+    // в исходных величинах он через суммы не выражается. Такие же и R² (logTotalSumOfSquares).
+    public double logDeviation(FunctionType type, double[] coeffs) {
+        if (!logSums) {
+            throw new IllegalStateException("Логарифмические суммы не накапливались");
+        }
+        // ln y = α + b·t (EXP) или α + b·v (POWER), α — ln a в сдвинутой переменной
+        double b = coeffs[1];
+        double S;
+        if (type == FunctionType.EXP) {
+            double alpha = Math.log(coeffs[0]) + b * shiftX;
+            S = expSumLogY2 - 2 * (alpha * expSumLogY + b * expSumTLogY)
+                    + alpha * alpha * expCount + 2 * alpha * b * expSumT + b * b * expSumT2;
+        } else if (type == FunctionType.POWER) {
+            double alpha = Math.log(coeffs[0]) + b * logShiftX;
+            S = powerSumLogY2 - 2 * (alpha * powerSumLogY + b * powerSumVLogY)
+                    + alpha * alpha * powerCount + 2 * alpha * b * powerSumV + b * b * powerSumV2;
+        } else {
+            throw new IllegalArgumentException("Остаток в логарифмах определён только для EXP и POWER");
+        }
+        return Math.max(S, 0);
+    }
+
+    // Σ(ln y − среднее ln y)² по тем же точкам, что и logDeviation
+    public double logTotalSumOfSquares(FunctionType type) {
+        if (!logSums) {
+            throw new IllegalStateException("Логарифмические суммы не накапливались");
+        }
+        if (type == FunctionType.EXP) {
+            return Math.max(expSumLogY2 - expSumLogY * expSumLogY / expCount, 0);
+        }
+        if (type == FunctionType.POWER) {
+            return Math.max(powerSumLogY2 - powerSumLogY * powerSumLogY / powerCount, 0);
+        }
+        throw new IllegalArgumentException("Остаток в логарифмах определён только для EXP и POWER");
+    }
+
+    // То же, но EXP, POWER и ненадёжные по моментам отклонения считаются проходом pass
+    public double deviation(FunctionType type, double[] coeffs, ResidualPass pass) {
+        double deviation = type == FunctionType.EXP || type == FunctionType.POWER
+                ? Double.NaN
+                : deviation(type, coeffs);
+        return Double.isNaN(deviation) ? pass.deviation(FittedModel.of(type, coeffs)) : deviation;
+    }
+
+    public double r2(FunctionType type, double[] coeffs) {
+        return 1 - deviation(type, coeffs) / totalSumOfSquares();
+    }
+
+    public double totalSumOfSquares() {
+        double meanU = momentSums[0] / count;
+        return Math.max(sumU2 - count * meanU * meanU, 0);
+    }
+
+    private double polynomialDeviation(double[] c, boolean clamp) {
+        return Algorithm.polynomialDeviation(powerSums, momentSums, sumU2, c, clamp);
+    }
+}
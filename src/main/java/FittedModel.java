@@ -0,0 +1,310 @@
+// Неизменяемая аппроксимирующая функция с подобранными коэффициентами.
+// Каждый подкласс содержит собственные циклы вычисления, поэтому в горячем
+// цикле нет выбора формулы по типу на каждой точке, и JIT встраивает формулу.
+public abstract class FittedModel {
+    private final FunctionType type;
+    private final double[] coeffs;
+
+    private FittedModel(FunctionType type, double[] coeffs) {
+        this.type = type;
+        this.coeffs = coeffs.clone();
+    }
+
+    public static FittedModel of(FunctionType type, double[] coeffs) {
+        switch (type) {
+            case LINEAR:
+                return new Linear(coeffs);
+            case POLY2:
+                return new Quadratic(coeffs);
+            case POLY3:
+                return new Cubic(coeffs);
+            case EXP:
+                return new Exponential(coeffs);
+            case LOG:
+                return new Logarithmic(coeffs);
+            case POWER:
+                return new Power(coeffs);
+            default:
+                throw new IllegalArgumentException("Неизвестный тип функции");
+        }
+    }
+
+    // Полином произвольной степени, коэффициенты по возрастанию степеней
+    public static FittedModel polynomial(double[] coeffs) {
+        return new Polynomial(coeffs);
+    }
+
+    // null для полиномов степени, которой нет среди FunctionType
+    public FunctionType getType() {
+        return type;
+    }
+
+    public double[] getCoefficients() {
+        return coeffs.clone();
+    }
+
+    public abstract double evaluate(double x);
+
+    public void evaluate(double[] xs, double[] out) {
+        evaluate(xs, 0, out, 0, xs.length);
+    }
+
+    public abstract void evaluate(double[] xs, int from, double[] out, int outFrom, int length);
+
+    // Сумма квадратов отклонений по точкам с индексами [from, to)
+    public abstract double deviation(double[] xs, double[] ys, int from, int to);
+
+    public double deviation(PointSet points) {
+        return deviation(points.getXs(), points.getYs(), 0, points.size());
+    }
+
+    // y = a·x + b
+    private static final class Linear extends FittedModel {
+        private final double a;
+        private final double b;
+
+        Linear(double[] coeffs) {
+            super(FunctionType.LINEAR, coeffs);
+            a = coeffs[0];
+            b = coeffs[1];
+        }
+
+        @Override
+        public double evaluate(double x) {
+            return a * x + b;
+        }
+
+        @Override
+        public void evaluate(double[] xs, int from, double[] out, int outFrom, int length) {
+            for (int i = 0; i < length; i++) {
+                out[outFrom + i] = a * xs[from + i] + b;
+            }
+        }
+
+        @Override
+        public double deviation(double[] xs, double[] ys, int from, int to) {
+            double S = 0;
+            for (int i = from; i < to; i++) {
+                double d = ys[i] - (a * xs[i] + b);
+                S += d * d;
+            }
+            return S;
+        }
+    }
+
+    // y = c0 + c1·x + c2·x²
+    private static final class Quadratic extends FittedModel {
+        private final double c0;
+        private final double c1;
+        private final double c2;
+
+        Quadratic(double[] coeffs) {
+            super(FunctionType.POLY2, coeffs);
+            c0 = coeffs[0];
+            c1 = coeffs[1];
+            c2 = coeffs[2];
+        }
+
+        @Override
+        public double evaluate(double x) {
+            return c0 + x * (c1 + x * c2);
+        }
+
+        @Override
+        public void evaluate(double[] xs, int from, double[] out, int outFrom, int length) {
+            for (int i = 0; i < length; i++) {
+                double x = xs[from + i];
+                out[outFrom + i] = c0 + x * (c1 + x * c2);
+            }
+        }
+
+        @Override
+        public double deviation(double[] xs, double[] ys, int from, int to) {
+            double S = 0;
+            for (int i = from; i < to; i++) {
+                double x = xs[i];
+                double d = ys[i] - (c0 + x * (c1 + x * c2));
+                S += d * d;
+            }
+            return S;
+        }
+    }
+
+    // y = c0 + c1·x + c2·x² + c3·x³
+    private static final class Cubic extends FittedModel {
+        private final double c0;
+        private final double c1;
+        private final double c2;
+        private final double c3;
+
+        Cubic(double[] coeffs) {
+            super(FunctionType.POLY3, coeffs);
+            c0 = coeffs[0];
+            c1 = coeffs[1];
+            c2 = coeffs[2];
+            c3 = coeffs[3];
+        }
+
+        @Override
+        public double evaluate(double x) {
+            return c0 + x * (c1 + x * (c2 + x * c3));
+        }
+
+        @Override
+        public void evaluate(double[] xs, int from, double[] out, int outFrom, int length) {
+            for (int i = 0; i < length; i++) {
+                double x = xs[from + i];
+                out[outFrom + i] = c0 + x * (c1 + x * (c2 + x * c3));
+            }
+        }
+
+        @Override
+        public double deviation(double[] xs, double[] ys, int from, int to) {
+            double S = 0;
+            for (int i = from; i < to; i++) {
+                double x = xs[i];
+                double d = ys[i] - (c0 + x * (c1 + x * (c2 + x * c3)));
+                S += d * d;
+            }
+            return S;
+        }
+    }
+
+    // y = c0 + c1·x + ... + cm·x^m по схеме Горнера
+    private static final class Polynomial extends FittedModel {
+        private final double[] c;
+
+        Polynomial(double[] coeffs) {
+            super(coeffs.length == 3 ? FunctionType.POLY2 : coeffs.length == 4 ? FunctionType.POLY3 : null, coeffs);
+            c = coeffs.clone();
+        }
+
+        @Override
+        public double evaluate(double x) {
+            double y = c[c.length - 1];
+            for (int k = c.length - 2; k >= 0; k--) {
+                y = y * x + c[k];
+            }
+            return y;
+        }
+
+        @Override
+        public void evaluate(double[] xs, int from, double[] out, int outFrom, int length) {
+            for (int i = 0; i < length; i++) {
+                out[outFrom + i] = evaluate(xs[from + i]);
+            }
+        }
+
+        @Override
+        public double deviation(double[] xs, double[] ys, int from, int to) {
+            double S = 0;
+            for (int i = from; i < to; i++) {
+                double d = ys[i] - evaluate(xs[i]);
+                S += d * d;
+            }
+            return S;
+        }
+    }
+
+    // y = a·e^(b·x)
+    private static final class Exponential extends FittedModel {
+        private final double a;
+        private final double b;
+
+        Exponential(double[] coeffs) {
+            super(FunctionType.EXP, coeffs);
+            a = coeffs[0];
+            b = coeffs[1];
+        }
+
+        @Override
+        public double evaluate(double x) {
+            return a * Math.exp(b * x);
+        }
+
+        @Override
+        public void evaluate(double[] xs, int from, double[] out, int outFrom, int length) {
+            for (int i = 0; i < length; i++) {
+                out[outFrom + i] = a * Math.exp(b * xs[from + i]);
+            }
+        }
+
+        @Override
+        public double deviation(double[] xs, double[] ys, int from, int to) {
+            double S = 0;
+            for (int i = from; i < to; i++) {
+                double d = ys[i] - a * Math.exp(b * xs[i]);
+                S += d * d;
+            }
+            return S;
+        }
+    }
+
+    // y = a + b·ln(x)
+    private static final class Logarithmic extends FittedModel {
+        private final double a;
+        private final double b;
+
+        Logarithmic(double[] coeffs) {
+            super(FunctionType.LOG, coeffs);
+            a = coeffs[0];
+            b = coeffs[1];
+        }
+
+        @Override
+        public double evaluate(double x) {
+            return a + b * Math.log(x);
+        }
+
+        @Override
+        public void evaluate(double[] xs, int from, double[] out, int outFrom, int length) {
+            for (int i = 0; i < length; i++) {
+                out[outFrom + i] = a + b * Math.log(xs[from + i]);
+            }
+        }
+
+        @Override
+        public double deviation(double[] xs, double[] ys, int from, int to) {
+            double S = 0;
+            for (int i = from; i < to; i++) {
+                double d = ys[i] - (a + b * Math.log(xs[i]));
+                S += d * d;
+            }
+            return S;
+        }
+    }
+
+    // y = a·x^b
+    private static final class Power extends FittedModel {
+        private final double a;
+        private final double b;
+
+        Power(double[] coeffs) {
+            super(FunctionType.POWER, coeffs);
+            a = coeffs[0];
+            b = coeffs[1];
+        }
+
+        @Override
+        public double evaluate(double x) {
+            return a * Math.pow(x, b);
+        }
+
+        @Override
+        public void evaluate(double[] xs, int from, double[] out, int outFrom, int length) {
+            for (int i = 0; i < length; i++) {
+                out[outFrom + i] = a * Math.pow(xs[from + i], b);
+            }
+        }
+
+        @Override
+        public double deviation(double[] xs, double[] ys, int from, int to) {
+            double S = 0;
+            for (int i = from; i < to; i++) {
+                double d = ys[i] - a * Math.pow(xs[i], b);
+                S += d * d;
+            }
+            return S;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+import java.util.Arrays;
+
+public class IncrementalFitter {
+    private final FunctionType type;
+    private final FitStatistics stats = new FitStatistics();
+
+    // Кольцевой буфер окна; null в режиме без окна
+    private final double[] windowX;
+    private final double[] windowY;
+    private int head;
+    private int size;
+
+    public IncrementalFitter(FunctionType type) {
+        if (type == FunctionType.BEST) {
+            throw new IllegalArgumentException("Режим BEST требует окна фиксированного размера");
+        }
+        this.type = type;
+        this.windowX = null;
+        this.windowY = null;
+    }
+
+    public IncrementalFitter(FunctionType type, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер окна должен быть положительным");
+        }
+        this.type = type;
+        this.windowX = new double[capacity];
+        this.windowY = new double[capacity];
+    }
+
+    public void add(double x, double y) {
+        if (windowX == null) {
+            stats.add(x, y);
+            stats.recenter();
+            size++;
+            return;
+        }
+
+        int capacity = windowX.length;
+        if (size == capacity) {
+            stats.remove(windowX[head], windowY[head]);
+            windowX[head] = x;
+            windowY[head] = y;
+            stats.add(x, y);
+            head = (head + 1) % capacity;
+            // Раз за оборот окна суммы пересчитываются заново, чтобы ошибка
+            // округления от вычитаний не накапливалась (амортизированно O(1)).
+            // Пересчёт переносит и сдвиг сумм FitStatistics на точку текущего окна:
+            // иначе при растущих x (метки времени) t = x − shiftX росло бы без границ
+            // и суммы снова теряли бы точность
+            if (head == 0) {
+                rebuild();
+            }
+        } else {
+            int tail = (head + size) % capacity;
+            windowX[tail] = x;
+            windowY[tail] = y;
+            stats.add(x, y);
+            size++;
+        }
+    }
+
+    public void remove(double x, double y) {
+        if (windowX != null) {
+            throw new IllegalStateException("В режиме окна точки вытесняются автоматически");
+        }
+        // Пересобрать суммы без окна не из чего: сдвиг переносится к точкам, что остались
+        stats.remove(x, y);
+        stats.recenter();
+        size--;
+    }
+
+    public void clear() {
+        stats.clear();
+        head = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isWindowed() {
+        return windowX != null;
+    }
+
+    public FunctionType getType() {
+        return type;
+    }
+
+    public FunctionType getFittedType() {
+        if (type != FunctionType.BEST) {
+            return type;
+        }
+        return Algorithm.findBestFit(stats, windowPoints());
+    }
+
+    // Пустой массив, если для BEST ни одна модель не подобралась
+    public double[] getCoefficients() {
+        FittedModel model = model();
+        return model == null ? new double[0] : model.getCoefficients();
+    }
+
+    // NaN, если модели нет. Без окна EXP и POWER — в логарифмах, см. deviation
+    public double getDeviation() {
+        FittedModel model = model();
+        return model == null ? Double.NaN : deviation(model.getType(), model.getCoefficients());
+    }
+
+    public double getR2() {
+        FittedModel model = model();
+        if (model == null) return Double.NaN;
+        return r2(model.getType(), deviation(model.getType(), model.getCoefficients()));
+    }
+
+    // Модель подбирается один раз для всех показателей
+    public FitResult getResult() {
+        FittedModel model = model();
+        if (model == null) {
+            throw new IllegalStateException("Не удалось подобрать функцию");
+        }
+        double deviation = deviation(model.getType(), model.getCoefficients());
+        return new FitResult(model, r2(model.getType(), deviation), deviation, stats.pearsonCorrelation());
+    }
+
+    // Копия точек окна в порядке буфера, а не поступления
+    public PointSet copyWindow() {
+        if (windowX == null) {
+            throw new IllegalStateException("Точки хранятся только в режиме окна");
+        }
+        return new PointSet(Arrays.copyOf(windowX, size), Arrays.copyOf(windowY, size), size);
+    }
+
+    // Без окна точек нет, и EXP с POWER остаются решением в логарифмах;
+    // в режиме окна они уточняются нелинейным МНК по точкам окна
+    private FittedModel model() {
+        if (type == FunctionType.BEST) {
+            return Algorithm.fitBest(stats, windowPoints());
+        }
+        double[] coeffs = stats.coefficients(type);
+        if ((type == FunctionType.EXP || type == FunctionType.POWER) && windowX != null) {
+            coeffs = LevenbergMarquardt.DEFAULT.fit(type, windowPoints(), coeffs);
+        }
+        return FittedModel.of(type, coeffs);
+    }
+
+    // Для EXP и POWER остатки не выражаются через суммы, а по суммам они бывают ненадёжны:
+    // в режиме окна тогда нужен проход по окну. Без окна точек нет: ненадёжный остаток
+    // ограничивается нулём, а EXP и POWER меряются в логарифмах — как ln y отклоняется
+    // от ln f(x), — и R² для них тоже в логарифмах
+    private double deviation(FunctionType fittedType, double[] coeffs) {
+        if (size == 0) return Double.NaN;
+        if (windowX != null) {
+            return stats.deviation(fittedType, coeffs, model -> model.deviation(windowPoints()));
+        }
+        return stats.clampedDeviation(fittedType, coeffs);
+    }
+
+    private double r2(FunctionType fittedType, double deviation) {
+        boolean logSpace = windowX == null && (fittedType == FunctionType.EXP || fittedType == FunctionType.POWER);
+        double totalSS = logSpace ? stats.logTotalSumOfSquares(fittedType) : stats.totalSumOfSquares();
+        return 1 - deviation / totalSS;
+    }
+
+    // Порядок точек для сумм не важен, поэтому буфер отдаётся как есть
+    private PointSet windowPoints() {
+        return new PointSet(windowX, windowY, size);
+    }
+
+    private void rebuild() {
+        stats.clear();
+        for (int i = 0; i < size; i++) {
+            stats.add(windowX[i], windowY[i]);
+        }
+    }
+}
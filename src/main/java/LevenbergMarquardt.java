@@ -0,0 +1,202 @@
+import java.util.Arrays;
+
+// Нелинейный МНК методом Левенберга — Марквардта для y = a·e^(b·x) (EXP) и y = a·x^b (POWER).
+// Минимизируется сумма квадратов отклонений в исходном пространстве, а не в логарифмах,
+// поэтому точки с y ≤ 0 тоже участвуют. Для POWER берутся только точки с x > 0:
+// на остальных x^b и его производная не определены.
+// Начальное приближение — решение в логарифмах; каждая итерация — один проход по данным,
+// в котором сразу считаются S, JᵀJ и Jᵀr в пробной точке.
+public class LevenbergMarquardt {
+    public static final LevenbergMarquardt DEFAULT = new LevenbergMarquardt(100, 1e-10);
+
+    // Результат прохода: {S, JᵀJ[0][0], JᵀJ[0][1], JᵀJ[1][1], Jᵀr[0], Jᵀr[1]}
+    static final int PASS_SIZE = 6;
+
+    private static final double INITIAL_LAMBDA = 1e-3;
+    private static final double MAX_LAMBDA = 1e16;
+
+    private final int maxIterations;
+    private final double tolerance;
+
+    // tolerance — относительное уменьшение S или относительный шаг параметров, при
+    // котором итерации прекращаются
+    public LevenbergMarquardt(int maxIterations, double tolerance) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("Число итераций должно быть положительным");
+        }
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("Точность должна быть положительной");
+        }
+        this.maxIterations = maxIterations;
+        this.tolerance = tolerance;
+    }
+
+    // Суммы по всем точкам в точке (a, b), записываются в out
+    interface Pass {
+        void compute(double a, double b, double[] out);
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public double[] fit(FunctionType type, PointSet points, double[] initial) {
+        return fit(type, points, null, initial);
+    }
+
+    // Взвешенный МНК: минимизируется Σw·r²; weights == null — все веса равны 1
+    public double[] fit(FunctionType type, PointSet points, double[] weights, double[] initial) {
+        return fit(type, points.getXs(), points.getYs(), weights, 0, points.size(), initial);
+    }
+
+    // По точкам [from, to); веса индексируются так же, как координаты
+    double[] fit(FunctionType type, double[] xs, double[] ys, double[] weights, int from, int to, double[] initial) {
+        checkType(type);
+        return fit(initial, (a, b, out) -> {
+            Arrays.fill(out, 0);
+            accumulate(type, xs, ys, weights, from, to, a, b, out);
+        });
+    }
+
+    double[] fit(double[] initial, Pass pass) {
+        double[] current = new double[PASS_SIZE];
+        double[] trial = new double[PASS_SIZE];
+
+        double a = initial[0];
+        double b = initial[1];
+        if (Double.isFinite(a) && Double.isFinite(b)) {
+            pass.compute(a, b, current);
+        }
+        // Решение в логарифмах не существует (например, нет ни одного y > 0) или
+        // переполняется: старт с константы
+        if (!Double.isFinite(a) || !Double.isFinite(b) || !Double.isFinite(current[0])) {
+            a = 1;
+            b = 0;
+            pass.compute(a, b, current);
+        }
+
+        double lambda = INITIAL_LAMBDA;
+        for (int iteration = 0; iteration < maxIterations && current[0] > 0; iteration++) {
+            // (JᵀJ + λ·diag(JᵀJ))·δ = Jᵀr
+            double d0 = current[1] * (1 + lambda);
+            double d1 = current[3] * (1 + lambda);
+            double off = current[2];
+            double det = d0 * d1 - off * off;
+            if (!(det > 0)) {
+                lambda *= 10;
+                if (lambda > MAX_LAMBDA) break;
+                continue;
+            }
+            double stepA = (d1 * current[4] - off * current[5]) / det;
+            double stepB = (d0 * current[5] - off * current[4]) / det;
+            double nextA = a + stepA;
+            double nextB = b + stepB;
+
+            pass.compute(nextA, nextB, trial);
+            if (trial[0] < current[0]) {
+                boolean converged = current[0] - trial[0] <= tolerance * current[0]
+                        || (Math.abs(stepA) <= tolerance * (Math.abs(a) + tolerance)
+                        && Math.abs(stepB) <= tolerance * (Math.abs(b) + tolerance));
+                double[] t = current;
+                current = trial;
+                trial = t;
+                a = nextA;
+                b = nextB;
+                lambda = Math.max(lambda / 10, 1e-12);
+                if (converged) break;
+            } else {
+                // Шаг не уменьшил S (или дал переполнение): ближе к градиентному спуску
+                lambda *= 10;
+                if (lambda > MAX_LAMBDA) break;
+            }
+        }
+        return new double[]{a, b};
+    }
+
+    // Добавляет к out суммы по точкам [from, to); без выделения памяти.
+    // ws == null — все веса равны 1
+    static void accumulate(FunctionType type, double[] xs, double[] ys, double[] ws, int from, int to,
+                           double a, double b, double[] out) {
+        double S = 0, jaja = 0, jajb = 0, jbjb = 0, jar = 0, jbr = 0;
+        if (type == FunctionType.EXP) {
+            for (int i = from; i < to; i++) {
+                double w = ws == null ? 1 : ws[i];
+                double x = xs[i];
+                double e = Math.exp(b * x);
+                double r = ys[i] - a * e;
+                double jb = a * x * e;
+                double we = w * e;
+                double wjb = w * jb;
+                S += w * r * r;
+                jaja += we * e;
+                jajb += we * jb;
+                jbjb += wjb * jb;
+                jar += we * r;
+                jbr += wjb * r;
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                double w = ws == null ? 1 : ws[i];
+                double x = xs[i];
+                if (x <= 0) continue;
+                double logX = Math.log(x);
+                double p = Math.exp(b * logX);
+                double r = ys[i] - a * p;
+                double jb = a * p * logX;
+                double wp = w * p;
+                double wjb = w * jb;
+                S += w * r * r;
+                jaja += wp * p;
+                jajb += wp * jb;
+                jbjb += wjb * jb;
+                jar += wp * r;
+                jbr += wjb * r;
+            }
+        }
+        out[0] += S;
+        out[1] += jaja;
+        out[2] += jajb;
+        out[3] += jbjb;
+        out[4] += jar;
+        out[5] += jbr;
+    }
+
+    // То же, что accumulate, но суммы раскладываются по блокам: точка i попадает в блок
+    // i % folds, суммы блока f лежат в out[f·PASS_SIZE ...]
+    static void accumulateFolds(FunctionType type, double[] xs, double[] ys, int n, int folds,
+                                double a, double b, double[] out) {
+        boolean exp = type == FunctionType.EXP;
+        for (int i = 0; i < n; i++) {
+            double x = xs[i];
+            double basis;
+            double jb;
+            if (exp) {
+                basis = Math.exp(b * x);
+                jb = a * x * basis;
+            } else {
+                if (x <= 0) continue;
+                double logX = Math.log(x);
+                basis = Math.exp(b * logX);
+                jb = a * basis * logX;
+            }
+            double r = ys[i] - a * basis;
+            int base = (i % folds) * PASS_SIZE;
+            out[base] += r * r;
+            out[base + 1] += basis * basis;
+            out[base + 2] += basis * jb;
+            out[base + 3] += jb * jb;
+            out[base + 4] += basis * r;
+            out[base + 5] += jb * r;
+        }
+    }
+
+    static void checkType(FunctionType type) {
+        if (type != FunctionType.EXP && type != FunctionType.POWER) {
+            throw new IllegalArgumentException("Метод Левенберга — Марквардта применяется только к EXP и POWER");
+        }
+    }
+}
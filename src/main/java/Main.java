@@ -4,18 +4,40 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Main {
 
     private JFrame frame;
     private ConsolePanel consolePanel;
+    private PlotPanel plotPanel;
     private JComboBox<String> functionsComboBox;
+    private JProgressBar progressBar;
+    private JButton cancelButton;
     private FunctionType selectedFunction = FunctionType.LINEAR;
 
     private int calculationCount = 1;
 
+    private final FitCache fitCache = new FitCache(64);
+
+    // Выполняющийся расчёт и следующий за ним. Повторные нажатия во время расчёта
+    // заменяют ожидающий запрос, так что после текущего выполняется только последний.
+    // Оба поля меняются только в EDT.
+    private ApproximationWorker currentWorker;
+    private ApproximationWorker pendingWorker;
+
+    // Последнее обновление потока, ещё не выведенное в EDT. Таймер потока заменяет его,
+    // а не ставит в очередь, поэтому в очереди EDT не больше одного вывода
+    private final AtomicReference<StreamIngestor.Update> pendingUpdate = new AtomicReference<>();
+    private StreamIngestor streamIngestor;
+
     private class ItemListenerImplementation implements ItemListener {
         @Override
         public void itemStateChanged(ItemEvent e) {
@@ -26,11 +48,214 @@ public class Main {
         }
     }
 
+    // Расчёт в фоновом потоке. Строки для консоли копятся в lines и вместе
+    // с графиком выводятся одним вызовом done() в EDT.
+    // Для двоичного файла pointSet — только предпросмотр для графика, а подбор идёт
+    // по всему файлу блоками, без кэша: отпечаток пришлось бы считать проходом по файлу.
+    private class ApproximationWorker extends SwingWorker<FitResult, Void> {
+        private final PointSet pointSet;
+        private final BinaryPointFile file;
+        private final FunctionType selected;
+        private final List<String> lines = new ArrayList<>();
+        private final long started;
+
+        // started — момент нажатия кнопки по StageMetrics.start()
+        ApproximationWorker(PointSet pointSet, BinaryPointFile file, FunctionType selected, long started) {
+            this.pointSet = pointSet;
+            this.file = file;
+            this.selected = selected;
+            this.started = started;
+        }
+
+        // Сам расчёт не прерывается, но отменённый результат не выводится и не кэшируется
+        // (cancel(true) прерывает поток). Следующий расчёт запускается только после
+        // возврата отсюда, а не из done(): при отмене done() вызывается сразу, и два
+        // расчёта заняли бы процессор одновременно.
+        @Override
+        protected FitResult doInBackground() {
+            try {
+                return compute();
+            } finally {
+                SwingUtilities.invokeLater(Main.this::onWorkerFinished);
+            }
+        }
+
+        private FitResult compute() {
+            FitResult result = file == null
+                    ? fitCache.fit(selected, pointSet)
+                    : FitResult.compute(selected, file);
+            if (isCancelled()) return null;
+
+            if (file != null) {
+                lines.add("Точек в файле: " + file.size() + ", в таблице и на графике первые " + pointSet.size());
+            }
+
+            FunctionType type = result.getType();
+            if (selected == FunctionType.BEST) {
+                lines.add("Лучшая аппроксимирующая функция: " + type.getName());
+            }
+            if (type == FunctionType.LINEAR) {
+                lines.add("Коэффициент корреляции пирсона: " + result.getPearson());
+            }
+
+            lines.add("Коэффициенты: ");
+            for (double coef: result.getCoefficients()) {
+                lines.add(coef + " ");
+            }
+            lines.add("Коэффициент детерменации R²: " + result.getR2());
+            if (!Double.isNaN(result.getConditionNumber())) {
+                lines.add("Число обусловленности системы: " + result.getConditionNumber());
+                if (result.isIllConditioned()) {
+                    lines.add("Внимание: система плохо обусловлена, коэффициенты могут быть неточными");
+                }
+            }
+            return result;
+        }
+
+        @Override
+        protected void done() {
+            if (!isCancelled()) {
+                consolePanel.print("Апроксимация №" + calculationCount);
+                calculationCount++;
+                consolePanel.print("Выбранная функция: " + selected.getName());
+                try {
+                    FitResult result = get();
+                    long stageStarted = StageMetrics.start();
+                    for (String line : lines) {
+                        consolePanel.print(line);
+                    }
+                    StageMetrics.stop(StageMetrics.Stage.CONSOLE, stageStarted);
+
+                    stageStarted = StageMetrics.start();
+                    plotPanel.updateScatterDataset(pointSet);
+                    if (file == null) {
+                        plotPanel.updateFunctionDataset(result.getModel(), pointSet);
+                    } else {
+                        // Оси и кривая — по диапазону всего файла из заголовка, точки — предпросмотр
+                        plotPanel.adjustRange(file.getMinX(), file.getMaxX(), file.getMinY(), file.getMaxY());
+                        plotPanel.updateFunctionDataset(result.getModel(), file.getMinX(), file.getMaxX());
+                    }
+                    StageMetrics.stop(StageMetrics.Stage.PLOT, stageStarted);
+                    StageMetrics.stop(StageMetrics.Stage.TOTAL, started);
+                } catch (ExecutionException e) {
+                    consolePanel.print("Ошибка: " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                consolePanel.print("");
+            }
+        }
+    }
+
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--stream")) {
+            startStreamMode(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--serve")) {
+            FitServer.main(args);
+            return;
+        }
+        // С аргументами приложение работает без GUI, Swing не инициализируется
+        if (args.length > 0) {
+            BatchRunner.main(args);
+            return;
+        }
         SwingUtilities.invokeLater(Main::new);
     }
 
+    // --stream [--type T] [--window N] [файл]: без файла точки читаются из stdin
+    private static void startStreamMode(String[] args) {
+        FunctionType type = FunctionType.LINEAR;
+        int window = StreamIngestor.DEFAULT_WINDOW;
+        Path path = null;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--type":
+                        type = BatchRunner.parseType(args[++i]);
+                        break;
+                    case "--window":
+                        window = Integer.parseInt(args[++i]);
+                        if (window <= 0) throw new IllegalArgumentException();
+                        break;
+                    default:
+                        if (path != null) throw new IllegalArgumentException();
+                        path = Paths.get(args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Использование: --stream [--type LINEAR|POLY2|POLY3|EXP|LOG|POWER|BEST] "
+                    + "[--window N] [файл или именованный канал]");
+            System.exit(2);
+            return;
+        }
+
+        FunctionType streamType = type;
+        int streamWindow = window;
+        Path streamPath = path;
+        SwingUtilities.invokeLater(() -> new Main().startStream(streamType, streamWindow, streamPath));
+    }
+
+    private void startStream(FunctionType type, int window, Path path) {
+        String source = path == null ? "stdin" : path.toString();
+        consolePanel.print("Чтение потока: " + source + ", функция " + type.getName() + ", окно " + window + " точек");
+        consolePanel.print("");
+        streamIngestor = new StreamIngestor(type, window, new StreamIngestor.Listener() {
+            @Override
+            public void onUpdate(StreamIngestor.Update update) {
+                if (pendingUpdate.getAndSet(update) == null) {
+                    SwingUtilities.invokeLater(Main.this::showStreamUpdate);
+                }
+            }
+
+            @Override
+            public void onFinished(IOException error) {
+                SwingUtilities.invokeLater(() -> {
+                    showStreamUpdate();
+                    consolePanel.print(error == null
+                            ? "Поток завершён"
+                            : "Ошибка чтения потока: " + error.getMessage());
+                    consolePanel.print("");
+                });
+            }
+        });
+        if (path == null) {
+            streamIngestor.start(System.in);
+        } else {
+            streamIngestor.start(path);
+        }
+    }
+
+    private void showStreamUpdate() {
+        StreamIngestor.Update update = pendingUpdate.getAndSet(null);
+        if (update == null) return;
+
+        FitResult result = update.getResult();
+        StringBuilder line = new StringBuilder("Точек: ").append(update.getReceived());
+        if (update.getDropped() > 0) {
+            line.append(", вытеснено до подбора: ").append(update.getDropped());
+        }
+        if (update.getSkipped() > 0) {
+            line.append(", не разобрано строк: ").append(update.getSkipped());
+        }
+        if (result != null) {
+            line.append("; ").append(result.getType().getName())
+                    .append(", коэффициенты ").append(Arrays.toString(result.getCoefficients()))
+                    .append(", R² = ").append(result.getR2());
+        }
+        consolePanel.print(line.toString());
+
+        long started = StageMetrics.start();
+        plotPanel.updateScatterDataset(update.getWindow());
+        if (result != null) {
+            plotPanel.updateFunctionDataset(result.getModel(), update.getWindow());
+        }
+        StageMetrics.stop(StageMetrics.Stage.PLOT, started);
+    }
+
     public Main() {
+        StageMetrics.register();
         frame = new JFrame("LAB 4");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setExtendedState(JFrame.MAXIMIZED_BOTH);
@@ -55,7 +280,7 @@ public class Main {
         gbc.gridy = 1;
         initialPanel.add(functionsComboBox, gbc);
 
-        PlotPanel plotPanel = new PlotPanel();
+        plotPanel = new PlotPanel();
         gbc.gridx = 0;
         gbc.gridy = 2;
         gbc.weighty = 1;
@@ -71,40 +296,58 @@ public class Main {
         approxButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                consolePanel.print("Апроксимация №" + calculationCount);
-                calculationCount++;
-
-                consolePanel.print("Выбранная функция: " + selectedFunction.getName());
+                long started = StageMetrics.start();
+                PointSet pointSet = pointsInputPanel.getPointSet();
+                StageMetrics.stop(StageMetrics.Stage.PARSE, started);
+                int incomplete = pointsInputPanel.getModel().getIncompleteCount();
+                if (incomplete > 0) {
+                    consolePanel.print("Не заполнено точек: " + incomplete + ", они пропущены");
+                }
 
-                List<MyPoint> points = pointsInputPanel.getPoints();
-                double[] coeffs;
-                if (selectedFunction == FunctionType.BEST) {
-                    selectedFunction = Algorithm.findBestFit(points);
-                    consolePanel.print("Лучшая аппроксимирующая функция: " + selectedFunction.getName());
-                    coeffs = Algorithm.bestFit(points);
+                ApproximationWorker worker = new ApproximationWorker(pointSet, pointsInputPanel.getSourceFile(),
+                        selectedFunction, started);
+                if (currentWorker != null) {
+                    pendingWorker = worker;
                 } else {
-                    coeffs = Algorithm.approximate(selectedFunction, points);
+                    startWorker(worker);
                 }
+            }
+        });
 
-                if (selectedFunction == FunctionType.LINEAR) {
-                    double correlation = Algorithm.calculatePearsonCorrelation(points);
-                    consolePanel.print("Коэффициент корреляции пирсона: " + correlation);
-                }
+        progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setStringPainted(true);
+        progressBar.setString("Вычисление...");
+        progressBar.setVisible(false);
 
-                consolePanel.print("Коэффициенты: ");
-                for (double coef: coeffs) {
-                    consolePanel.print(coef + " ");
+        cancelButton = new JButton("Отмена");
+        cancelButton.setEnabled(false);
+        cancelButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                pendingWorker = null;
+                if (currentWorker != null && !currentWorker.isCancelled()) {
+                    currentWorker.cancel(true);
+                    consolePanel.print("Вычисление отменено");
+                    consolePanel.print("");
                 }
+            }
+        });
 
-                double r2 = Algorithm.calculateR2(selectedFunction, points,coeffs);
-                consolePanel.print("Коэффициент детерменации R²: " + r2);
+        JButton metricsButton = new JButton("Время этапов");
+        metricsButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                consolePanel.print(StageMetrics.getInstance().getSummary());
+                consolePanel.print("Кэш: попаданий " + fitCache.getHitCount() + ", промахов " + fitCache.getMissCount());
                 consolePanel.print("");
-
-                plotPanel.updateScatterDataset(points);
-                plotPanel.updateFunctionDataset(selectedFunction, coeffs, points);
             }
         });
 
+        JPanel progressPanel = new JPanel(new BorderLayout(10, 0));
+        progressPanel.add(progressBar, BorderLayout.CENTER);
+        progressPanel.add(cancelButton, BorderLayout.EAST);
+
         consolePanel = new ConsolePanel();
 
         rightPanel.add(fileLoaderPanel);
@@ -115,6 +358,8 @@ public class Main {
         rightPanel.add(spacer1);
 
         rightPanel.add(approxButton);
+        rightPanel.add(progressPanel);
+        rightPanel.add(metricsButton);
 
         JPanel spacer2 = new JPanel();
         spacer2.setPreferredSize(new Dimension(0, 20));
@@ -131,6 +376,25 @@ public class Main {
         return initialPanel;
     }
 
+    private void startWorker(ApproximationWorker worker) {
+        currentWorker = worker;
+        progressBar.setVisible(true);
+        cancelButton.setEnabled(true);
+        worker.execute();
+    }
+
+    private void onWorkerFinished() {
+        currentWorker = null;
+        if (pendingWorker != null) {
+            ApproximationWorker next = pendingWorker;
+            pendingWorker = null;
+            startWorker(next);
+        } else {
+            progressBar.setVisible(false);
+            cancelButton.setEnabled(false);
+        }
+    }
+
     private JComboBox<String> createDropDown() {
         ItemListener itemListener = new ItemListenerImplementation();
         JComboBox<String> dropDown = new JComboBox<>(
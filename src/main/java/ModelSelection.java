@@ -0,0 +1,283 @@
+// Оценки всех функций на одном наборе точек для выбора лучшей по SelectionCriterion.
+// Скользящий контроль по одной точке для LINEAR, POLY2, POLY3 и LOG считается без
+// n переобучений: остаток e_i отложенной точки равен e_i / (1 − h_i), где h_i — диагональ
+// матрицы проекции (PRESS). Для EXP и POWER такой формулы нет, и для них используется
+// k-кратный контроль, в котором решение без блока приближается одним шагом Гаусса — Ньютона.
+// Сверх обычного BEST добавляются проход центрированных сумм, проход PRESS и по два
+// прохода k-кратного контроля для EXP и POWER, независимо от k.
+public class ModelSelection {
+    public static final int DEFAULT_FOLDS = 5;
+
+    private static final FunctionType[] TYPES = {
+            FunctionType.LINEAR, FunctionType.POLY2, FunctionType.POLY3,
+            FunctionType.EXP, FunctionType.LOG, FunctionType.POWER
+    };
+
+    private final int count;
+    private final FittedModel[] models = new FittedModel[FunctionType.values().length];
+    private final double[] deviations = new double[FunctionType.values().length];
+    private final double[] crossValidation = new double[FunctionType.values().length];
+
+    private ModelSelection(int count) {
+        this.count = count;
+    }
+
+    public static ModelSelection of(PointSet points) {
+        return of(points, DEFAULT_FOLDS);
+    }
+
+    public static ModelSelection of(PointSet points, int folds) {
+        if (folds < 2) {
+            throw new IllegalArgumentException("Число блоков контроля должно быть не меньше 2");
+        }
+        ModelSelection selection = new ModelSelection(points.size());
+        FitStatistics stats = FitStatistics.of(points);
+
+        for (FunctionType type : TYPES) {
+            double[] coeffs = stats.coefficients(type);
+            if (type == FunctionType.EXP || type == FunctionType.POWER) {
+                coeffs = LevenbergMarquardt.DEFAULT.fit(type, points, coeffs);
+            }
+            selection.models[type.ordinal()] = FittedModel.of(type, coeffs);
+        }
+
+        for (FunctionType type : TYPES) {
+            FittedModel model = selection.models[type.ordinal()];
+            selection.deviations[type.ordinal()] = type == FunctionType.EXP || type == FunctionType.POWER
+                    ? Double.NaN
+                    : stats.deviation(type, model.getCoefficients(), m -> m.deviation(points));
+        }
+        double[] nonlinearDeviations = Algorithm.calculateNonlinearDeviations(points.getXs(), points.getYs(), 0, points.size(),
+                selection.models[FunctionType.EXP.ordinal()].getCoefficients(),
+                selection.models[FunctionType.POWER.ordinal()].getCoefficients());
+        selection.deviations[FunctionType.EXP.ordinal()] = nonlinearDeviations[0];
+        selection.deviations[FunctionType.POWER.ordinal()] = nonlinearDeviations[1];
+
+        selection.computePress(stats, points);
+        selection.crossValidation[FunctionType.EXP.ordinal()] = selection.kFold(FunctionType.EXP, points, folds);
+        selection.crossValidation[FunctionType.POWER.ordinal()] = selection.kFold(FunctionType.POWER, points, folds);
+        return selection;
+    }
+
+    public static int parameterCount(FunctionType type) {
+        switch (type) {
+            case POLY2:
+                return 3;
+            case POLY3:
+                return 4;
+            case BEST:
+                throw new IllegalArgumentException("Неизвестный тип функции");
+            default:
+                return 2;
+        }
+    }
+
+    public FittedModel getModel(FunctionType type) {
+        return models[checkType(type).ordinal()];
+    }
+
+    public double deviation(FunctionType type) {
+        return deviations[checkType(type).ordinal()];
+    }
+
+    public double aic(FunctionType type) {
+        return count * Math.log(deviation(type) / count) + 2 * parameterCount(type);
+    }
+
+    public double bic(FunctionType type) {
+        return count * Math.log(deviation(type) / count) + parameterCount(type) * Math.log(count);
+    }
+
+    public double crossValidation(FunctionType type) {
+        return crossValidation[checkType(type).ordinal()];
+    }
+
+    public double score(FunctionType type, SelectionCriterion criterion) {
+        switch (criterion) {
+            case DEVIATION:
+                return deviation(type);
+            case AIC:
+                return aic(type);
+            case BIC:
+                return bic(type);
+            case CROSS_VALIDATION:
+                return crossValidation(type);
+            default:
+                throw new IllegalArgumentException("Неизвестный критерий");
+        }
+    }
+
+    // null, если ни у одной функции оценка не конечна
+    public FittedModel best(SelectionCriterion criterion) {
+        FittedModel best = null;
+        double minScore = Double.POSITIVE_INFINITY;
+        for (FunctionType type : TYPES) {
+            double score = score(type, criterion);
+            if (score < minScore) {
+                minScore = score;
+                best = models[type.ordinal()];
+            }
+        }
+        return best;
+    }
+
+    // Диагональ матрицы проекции не зависит от сдвига аргумента, поэтому матрица Грама
+    // строится по центрированным x (и ln x для LOG), а её диагональ приводится к единицам:
+    // иначе на данных с большим смещением разложение теряет точность.
+    // Разложение Холецкого ведущего блока — ведущий блок разложения всей матрицы,
+    // так что одно решение L·z = φ даёт h для полиномов всех трёх степеней: h_d = Σ z_k², k ≤ d.
+    private void computePress(FitStatistics stats, PointSet points) {
+        int n = points.size();
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        double meanX = stats.meanX();
+        double meanLogX = stats.meanLogX();
+
+        double[] sums = new double[7];
+        double[] logSums = new double[3];
+        boolean positiveX = true;
+        for (int i = 0; i < n; i++) {
+            double x = xs[i];
+            double u = x - meanX;
+            double power = 1;
+            for (int k = 0; k < sums.length; k++) {
+                sums[k] += power;
+                power *= u;
+            }
+            if (x > 0) {
+                double v = Math.log(x) - meanLogX;
+                logSums[0] += 1;
+                logSums[1] += v;
+                logSums[2] += v * v;
+            } else {
+                positiveX = false;
+            }
+        }
+
+        double[] scale = new double[4];
+        double[] L = new double[16];
+        int rank = SmallMatrix.choleskyEquilibrated(PolynomialSolver.hankel(sums, 4), 0, 4, 1e-14, scale, L);
+        double[] logScale = new double[2];
+        double[] logL = new double[4];
+        int logRank = SmallMatrix.choleskyEquilibrated(PolynomialSolver.hankel(logSums, 2), 0, 2, 1e-14, logScale, logL);
+
+        FittedModel linear = models[FunctionType.LINEAR.ordinal()];
+        FittedModel quadratic = models[FunctionType.POLY2.ordinal()];
+        FittedModel cubic = models[FunctionType.POLY3.ordinal()];
+        FittedModel logarithmic = models[FunctionType.LOG.ordinal()];
+        double[] phi = new double[4];
+        double[] z = new double[4];
+        double pressLinear = 0, pressQuadratic = 0, pressCubic = 0, pressLog = 0;
+
+        for (int i = 0; i < n; i++) {
+            double x = xs[i];
+            double y = ys[i];
+            double u = x - meanX;
+            phi[0] = scale[0];
+            phi[1] = u * scale[1];
+            phi[2] = u * u * scale[2];
+            phi[3] = u * u * u * scale[3];
+            forwardSubstitution(L, 4, phi, z, rank);
+
+            double h = z[0] * z[0] + z[1] * z[1];
+            pressLinear += pressTerm(y - linear.evaluate(x), h);
+            h += z[2] * z[2];
+            pressQuadratic += pressTerm(y - quadratic.evaluate(x), h);
+            h += z[3] * z[3];
+            pressCubic += pressTerm(y - cubic.evaluate(x), h);
+
+            if (x > 0) {
+                double v = Math.log(x) - meanLogX;
+                phi[0] = logScale[0];
+                phi[1] = v * logScale[1];
+                forwardSubstitution(logL, 2, phi, z, logRank);
+                pressLog += pressTerm(y - logarithmic.evaluate(x), z[0] * z[0] + z[1] * z[1]);
+            }
+        }
+
+        crossValidation[FunctionType.LINEAR.ordinal()] = rank >= 2 ? pressLinear : Double.NaN;
+        crossValidation[FunctionType.POLY2.ordinal()] = rank >= 3 ? pressQuadratic : Double.NaN;
+        crossValidation[FunctionType.POLY3.ordinal()] = rank >= 4 ? pressCubic : Double.NaN;
+        // Как и отклонение, LOG не определена, если есть точки с x ≤ 0
+        crossValidation[FunctionType.LOG.ordinal()] = positiveX && logRank >= 2 ? pressLog : Double.NaN;
+    }
+
+    private static double pressTerm(double residual, double leverage) {
+        double denominator = 1 - leverage;
+        if (!(denominator > 0)) return Double.POSITIVE_INFINITY;
+        double e = residual / denominator;
+        return e * e;
+    }
+
+    // Решение L·z = phi для первых rank компонент; остальные z обнуляются
+    // L — m×m по строкам (SmallMatrix.choleskyEquilibrated)
+    private static void forwardSubstitution(double[] L, int m, double[] phi, double[] z, int rank) {
+        for (int i = 0; i < m; i++) {
+            if (i >= rank) {
+                z[i] = 0;
+                continue;
+            }
+            double value = phi[i];
+            for (int k = 0; k < i; k++) {
+                value -= L[i * m + k] * z[k];
+            }
+            z[i] = value / L[i * m + i];
+        }
+    }
+
+    // Блок f — точки с i % k == f. Вместо k решений без блока делается один шаг
+    // Гаусса — Ньютона от решения по всем точкам: суммы JᵀJ и Jᵀr без блока f — это
+    // суммы по всем точкам минус суммы блока, и все k наборов сумм собираются за один
+    // проход. Второй проход считает ошибки отложенных точек.
+    private double kFold(FunctionType type, PointSet points, int folds) {
+        int n = points.size();
+        int k = Math.min(folds, n);
+        if (k < 2) return Double.NaN;
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        double[] full = models[type.ordinal()].getCoefficients();
+        int size = LevenbergMarquardt.PASS_SIZE;
+
+        double[] sums = new double[k * size];
+        LevenbergMarquardt.accumulateFolds(type, xs, ys, n, k, full[0], full[1], sums);
+        double[] total = new double[size];
+        for (int fold = 0; fold < k; fold++) {
+            for (int j = 0; j < size; j++) {
+                total[j] += sums[fold * size + j];
+            }
+        }
+
+        double[] a = new double[k];
+        double[] b = new double[k];
+        for (int fold = 0; fold < k; fold++) {
+            int base = fold * size;
+            double g00 = total[1] - sums[base + 1];
+            double g01 = total[2] - sums[base + 2];
+            double g11 = total[3] - sums[base + 3];
+            double r0 = total[4] - sums[base + 4];
+            double r1 = total[5] - sums[base + 5];
+            double det = g00 * g11 - g01 * g01;
+            a[fold] = full[0] + (g11 * r0 - g01 * r1) / det;
+            b[fold] = full[1] + (g00 * r1 - g01 * r0) / det;
+        }
+
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            int fold = i % k;
+            double x = xs[i];
+            double prediction = type == FunctionType.EXP
+                    ? a[fold] * Math.exp(b[fold] * x)
+                    : a[fold] * Math.pow(x, b[fold]);
+            double d = ys[i] - prediction;
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    private static FunctionType checkType(FunctionType type) {
+        if (type == FunctionType.BEST) {
+            throw new IllegalArgumentException("Неизвестный тип функции");
+        }
+        return type;
+    }
+}
@@ -0,0 +1,201 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class ParallelAlgorithm {
+    // Размер блока, на которые делятся данные. Разбиение зависит только от
+    // количества точек, поэтому порядок суммирования, а значит и результат,
+    // не зависит от числа потоков. Наборы не больше одного блока считаются
+    // в вызывающем потоке.
+    public static final int SEQUENTIAL_THRESHOLD = 1 << 15;
+
+    private final ForkJoinPool pool;
+
+    public ParallelAlgorithm() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelAlgorithm(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public FitStatistics statistics(PointSet points) {
+        return statistics(points, true);
+    }
+
+    private FitStatistics statistics(PointSet points, boolean logSums) {
+        return invoke(new StatisticsTask(points.getXs(), points.getYs(), 0, points.size(), logSums));
+    }
+
+    public double[] approximate(FunctionType type, PointSet points) {
+        switch (type) {
+            case LINEAR:
+            case POLY2:
+            case POLY3:
+                return statistics(points, false).coefficients(type);
+            case LOG:
+                return statistics(points, true).coefficients(type);
+            case EXP:
+            case POWER:
+                return refine(type, points, statistics(points, true).coefficients(type));
+            case BEST:
+                return bestFit(points);
+            default:
+                throw new IllegalArgumentException("Неизвестный тип функции");
+        }
+    }
+
+    public FunctionType findBestFit(PointSet points) {
+        return findBestFit(statistics(points), points);
+    }
+
+    public FunctionType findBestFit(FitStatistics stats, PointSet points) {
+        FittedModel best = fitBest(stats, points);
+        return best == null ? null : best.getType();
+    }
+
+    public FittedModel fitBest(FitStatistics stats, PointSet points) {
+        double[] expCoeffs = refine(FunctionType.EXP, points, stats.coefficients(FunctionType.EXP));
+        double[] powerCoeffs = refine(FunctionType.POWER, points, stats.coefficients(FunctionType.POWER));
+        double[] nonlinearDeviations = invoke(new SumTask(points, 0, points.size(),
+                (xs, ys, from, to) -> Algorithm.calculateNonlinearDeviations(xs, ys, from, to, expCoeffs, powerCoeffs)));
+        FunctionType bestType = Algorithm.selectBestFit(stats, nonlinearDeviations,
+                model -> calculateDeviation(model.getType(), points, model.getCoefficients()));
+        return Algorithm.bestModel(stats, bestType, expCoeffs, powerCoeffs);
+    }
+
+    public double[] bestFit(PointSet points) {
+        return fitBest(statistics(points), points).getCoefficients();
+    }
+
+    // Итерации Левенберга — Марквардта, каждый проход по данным — параллельная сумма
+    private double[] refine(FunctionType type, PointSet points, double[] initial) {
+        LevenbergMarquardt.checkType(type);
+        return LevenbergMarquardt.DEFAULT.fit(initial, (a, b, out) -> {
+            double[] sums = invoke(new SumTask(points, 0, points.size(), (xs, ys, from, to) -> {
+                double[] leaf = new double[LevenbergMarquardt.PASS_SIZE];
+                LevenbergMarquardt.accumulate(type, xs, ys, null, from, to, a, b, leaf);
+                return leaf;
+            }));
+            System.arraycopy(sums, 0, out, 0, LevenbergMarquardt.PASS_SIZE);
+        });
+    }
+
+    public double calculateDeviation(FunctionType type, PointSet points, double[] coeffs) {
+        return invoke(new SumTask(points, 0, points.size(),
+                (xs, ys, from, to) -> new double[]{Algorithm.calculateDeviation(type, xs, ys, from, to, coeffs)}))[0];
+    }
+
+    public double calculateR2(FunctionType type, PointSet points, double[] coeffs) {
+        double sumY = invoke(new SumTask(points, 0, points.size(), (xs, ys, from, to) -> {
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += ys[i];
+            }
+            return new double[]{sum};
+        }))[0];
+        double meanY = sumY / points.size();
+
+        double[] sums = invoke(new SumTask(points, 0, points.size(), (xs, ys, from, to) -> {
+            double totalSS = 0;
+            for (int i = from; i < to; i++) {
+                double d = ys[i] - meanY;
+                totalSS += d * d;
+            }
+            double residualSS = Algorithm.calculateDeviation(type, xs, ys, from, to, coeffs);
+            return new double[]{residualSS, totalSS};
+        }));
+
+        return 1 - (sums[0] / sums[1]);
+    }
+
+    public double calculatePearsonCorrelation(PointSet points) {
+        return statistics(points, false).pearsonCorrelation();
+    }
+
+    private <T> T invoke(RangeTask<T> task) {
+        if (task.isLeaf()) {
+            return task.invoke();
+        }
+        return pool.invoke(task);
+    }
+
+    private abstract static class RangeTask<T> extends RecursiveTask<T> {
+        protected final int from;
+        protected final int to;
+
+        RangeTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        boolean isLeaf() {
+            return to - from <= SEQUENTIAL_THRESHOLD;
+        }
+
+        int middle() {
+            return from + (to - from) / 2;
+        }
+    }
+
+    private static final class StatisticsTask extends RangeTask<FitStatistics> {
+        private final double[] xs;
+        private final double[] ys;
+        private final boolean logSums;
+
+        StatisticsTask(double[] xs, double[] ys, int from, int to, boolean logSums) {
+            super(from, to);
+            this.xs = xs;
+            this.ys = ys;
+            this.logSums = logSums;
+        }
+
+        @Override
+        protected FitStatistics compute() {
+            if (isLeaf()) {
+                FitStatistics stats = new FitStatistics(logSums);
+                stats.addAll(xs, ys, from, to);
+                return stats;
+            }
+            int mid = middle();
+            StatisticsTask left = new StatisticsTask(xs, ys, from, mid, logSums);
+            StatisticsTask right = new StatisticsTask(xs, ys, mid, to, logSums);
+            left.fork();
+            FitStatistics rightResult = right.compute();
+            FitStatistics result = left.join();
+            result.merge(rightResult);
+            return result;
+        }
+    }
+
+    private interface RangeSum {
+        double[] compute(double[] xs, double[] ys, int from, int to);
+    }
+
+    private static final class SumTask extends RangeTask<double[]> {
+        private final PointSet points;
+        private final RangeSum leaf;
+
+        SumTask(PointSet points, int from, int to, RangeSum leaf) {
+            super(from, to);
+            this.points = points;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (isLeaf()) {
+                return leaf.compute(points.getXs(), points.getYs(), from, to);
+            }
+            int mid = middle();
+            SumTask left = new SumTask(points, from, mid, leaf);
+            SumTask right = new SumTask(points, mid, to, leaf);
+            left.fork();
+            double[] rightResult = right.compute();
+            double[] result = left.join();
+            for (int k = 0; k < result.length; k++) {
+                result[k] += rightResult[k];
+            }
+            return result;
+        }
+    }
+}
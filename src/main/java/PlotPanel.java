@@ -5,23 +5,44 @@ import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYDotRenderer;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
-import org.jfree.data.xy.XYSeries;
-import org.jfree.data.xy.XYSeriesCollection;
+import org.jfree.data.DomainOrder;
+import org.jfree.data.Range;
 
 import javax.swing.JPanel;
 import java.awt.Color;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.geom.Rectangle2D;
 import java.util.List;
 
 public class PlotPanel extends JPanel {
+    // Размер ячейки прореживания в пикселях: точка рисуется квадратом 5×5,
+    // поэтому соседние точки внутри ячейки 2×2 на экране не различимы
+    private static final int DECIMATION_CELL = 2;
+    // Отсчётов кривой на пиксель ширины области графика
+    private static final int SAMPLES_PER_PIXEL = 2;
+    private static final int DEFAULT_WIDTH = 800;
+    private static final int DEFAULT_HEIGHT = 600;
 
     private JFreeChart chart;
     private XYPlot plot;
-    private XYSeriesCollection scatterDataset;
-    private XYSeriesCollection functionDataset;
+    private ChartPanel chartPanel;
+    private ArrayXYDataset scatterDataset;
+    private ArrayXYDataset functionDataset;
+
+    // Полные данные; в наборах графика лежит только видимая при текущем масштабе часть
+    private PointSet points;
+    private FittedModel model;
+    private double dataMinX;
+    private double dataMaxX;
+    private final ScatterDecimator decimator = new ScatterDecimator();
+    private double[] curveXs = new double[0];
+    private double[] curveYs = new double[0];
+    private boolean refreshing;
 
     public PlotPanel() {
-        scatterDataset = new XYSeriesCollection();
-        functionDataset = new XYSeriesCollection();
+        scatterDataset = new ArrayXYDataset("User Input Dots", DomainOrder.NONE);
+        functionDataset = new ArrayXYDataset("Approximation Function", DomainOrder.ASCENDING);
 
         chart = ChartFactory.createScatterPlot(
                 "Scatter Plot with Approximation Function",
@@ -45,69 +66,144 @@ public class PlotPanel extends JPanel {
         lineRenderer.setSeriesLinesVisible(0, true);
         lineRenderer.setSeriesShapesVisible(0, false);
         plot.setRenderer(1, lineRenderer);
+        plot.setDataset(1, functionDataset);
 
         plot.setBackgroundPaint(Color.white);
         plot.setDomainGridlinePaint(Color.black);
         plot.setRangeGridlinePaint(Color.black);
 
-        ChartPanel chartPanel = new ChartPanel(chart);
-        chartPanel.setPreferredSize(new java.awt.Dimension(800, 600));
+        // При масштабировании и изменении размера точки прореживаются и кривая
+        // строится заново под новый диапазон осей
+        plot.getDomainAxis().addChangeListener(event -> refresh());
+        plot.getRangeAxis().addChangeListener(event -> refresh());
+
+        chartPanel = new ChartPanel(chart);
+        chartPanel.setPreferredSize(new java.awt.Dimension(DEFAULT_WIDTH, DEFAULT_HEIGHT));
+        chartPanel.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                refresh();
+            }
+        });
         this.add(chartPanel);
     }
 
     public void updateScatterDataset(List<MyPoint> points) {
-        XYSeries scatterSeries = new XYSeries("User Input Dots");
-        for (MyPoint point : points) {
-            scatterSeries.add(point.getX(), point.getY());
+        updateScatterDataset(PointSet.fromList(points));
+    }
+
+    public void updateScatterDataset(PointSet points) {
+        this.points = points;
+        refreshing = true;
+        try {
+            autoAdjustRange(points);
+        } finally {
+            refreshing = false;
         }
-        scatterDataset.removeAllSeries();
-        scatterDataset.addSeries(scatterSeries);
-        autoAdjustRange(points);
+        refresh();
     }
 
     public void updateFunctionDataset(FunctionType functionType, double[] coeffs, List<MyPoint> points) {
-        XYSeries functionSeries = new XYSeries("Approximation Function");
+        updateFunctionDataset(FittedModel.of(functionType, coeffs), points);
+    }
 
-        double minX = points.stream().mapToDouble(MyPoint::getX).min().orElse(0);
-        double maxX = points.stream().mapToDouble(MyPoint::getX).max().orElse(5);
+    public void updateFunctionDataset(FittedModel model, List<MyPoint> points) {
+        updateFunctionDataset(model, PointSet.fromList(points));
+    }
 
-        for (double x = minX; x <= maxX; x += 0.1) {
-            double y = calculateApproximation(x, functionType, coeffs);
-            functionSeries.add(x, y);
+    // Кривая строится на отрезке между крайними x точек
+    public void updateFunctionDataset(FittedModel model, PointSet points) {
+        double minX = 0;
+        double maxX = 5;
+        if (!points.isEmpty()) {
+            double[] xs = points.getXs();
+            minX = Double.POSITIVE_INFINITY;
+            maxX = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < points.size(); i++) {
+                minX = Math.min(minX, xs[i]);
+                maxX = Math.max(maxX, xs[i]);
+            }
         }
+        updateFunctionDataset(model, minX, maxX);
+    }
 
-        functionDataset.removeAllSeries();
-        functionDataset.addSeries(functionSeries);
-        plot.setDataset(1, functionDataset);
+    // Отрезок известен заранее, например из заголовка BinaryPointFile
+    public void updateFunctionDataset(FittedModel model, double minX, double maxX) {
+        this.model = model;
+        dataMinX = minX;
+        dataMaxX = maxX;
+        refresh();
+    }
+
+    private void refresh() {
+        if (refreshing) return;
+        refreshing = true;
+        try {
+            Rectangle2D area = chartPanel.getScreenDataArea();
+            int width = area.getWidth() >= 1 ? (int) area.getWidth() : DEFAULT_WIDTH;
+            int height = area.getHeight() >= 1 ? (int) area.getHeight() : DEFAULT_HEIGHT;
+            Range xRange = plot.getDomainAxis().getRange();
+            Range yRange = plot.getRangeAxis().getRange();
+            if (points != null) {
+                refreshScatter(xRange, yRange, width, height);
+            }
+            if (model != null) {
+                refreshFunction(xRange, width);
+            }
+        } finally {
+            refreshing = false;
+        }
+    }
+
+    private void refreshScatter(Range xRange, Range yRange, int width, int height) {
+        decimator.decimate(points, xRange.getLowerBound(), xRange.getUpperBound(),
+                yRange.getLowerBound(), yRange.getUpperBound(),
+                width / DECIMATION_CELL, height / DECIMATION_CELL);
+        scatterDataset.setData(decimator.getXs(), decimator.getYs(), decimator.size());
     }
 
-    private double calculateApproximation(double x, FunctionType functionType, double[] coeffs) {
-        switch (functionType) {
-            case LINEAR:
-                return coeffs[0] * x + coeffs[1];  // y = a + bx
-            case POLY2:
-                return coeffs[0] + coeffs[1] * x + coeffs[2] * x * x; // y = a + bx + cx^2
-            case POLY3:
-                return coeffs[0] + coeffs[1] * x + coeffs[2] * x * x + coeffs[3] * x * x * x; // y = a + bx + cx^2 + dx^3
-            case EXP:
-                return coeffs[0] * Math.exp(coeffs[1] * x);  // y = a * exp(bx)
-            case LOG:
-                return coeffs[0] + coeffs[1] * Math.log(x);  // y = a + b * log(x)
-            case POWER:
-                return coeffs[0] * Math.pow(x, coeffs[1]);   // y = a * x^b
-            default:
-                throw new IllegalArgumentException("Unknown function type");
+    // Число отсчётов зависит от ширины графика в пикселях, а не от длины отрезка по x
+    private void refreshFunction(Range xRange, int width) {
+        double from = Math.max(xRange.getLowerBound(), dataMinX);
+        double to = Math.min(xRange.getUpperBound(), dataMaxX);
+        if (!(from <= to)) {
+            functionDataset.setData(curveXs, curveYs, 0);
+            return;
+        }
+
+        int count = Math.max(2, width * SAMPLES_PER_PIXEL);
+        if (curveXs.length < count) {
+            curveXs = new double[count];
+            curveYs = new double[count];
         }
+        double step = (to - from) / (count - 1);
+        for (int i = 0; i < count; i++) {
+            curveXs[i] = from + i * step;
+        }
+        curveXs[count - 1] = to;
+        model.evaluate(curveXs, 0, curveYs, 0, count);
+        functionDataset.setData(curveXs, curveYs, count);
     }
 
-    private void autoAdjustRange(List<MyPoint> points) {
+    private void autoAdjustRange(PointSet points) {
         if (points.isEmpty()) return;
 
-        double minX = points.stream().mapToDouble(MyPoint::getX).min().orElse(0);
-        double maxX = points.stream().mapToDouble(MyPoint::getX).max().orElse(1);
-        double minY = points.stream().mapToDouble(MyPoint::getY).min().orElse(0);
-        double maxY = points.stream().mapToDouble(MyPoint::getY).max().orElse(1);
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < points.size(); i++) {
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+
+        adjustRange(minX, maxX, minY, maxY);
+    }
 
+    // Диапазон, известный заранее (например, из заголовка BinaryPointFile), не требует прохода по точкам
+    public void adjustRange(double minX, double maxX, double minY, double maxY) {
         double paddingX = (maxX - minX) * 0.1;
         double paddingY = (maxY - minY) * 0.1;
 
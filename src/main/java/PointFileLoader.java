@@ -0,0 +1,229 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Читает пары "x y" из текстового файла. Числа разделяются пробельными символами
+// или запятыми; допускается десятичная и экспоненциальная запись.
+public class PointFileLoader {
+    // Файл отображается в память окнами: один MappedByteBuffer ограничен 2 ГБ
+    private static final long WINDOW_SIZE = 1L << 28;
+    private static final int MAX_POINTS = Integer.MAX_VALUE - 8;
+
+    // Степени десяти, точно представимые в double
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    private final int limit;
+    private double[] xs;
+    private double[] ys;
+    private int count;
+    private boolean pendingX;
+    private double x;
+
+    private PointFileLoader(int limit, long fileSize) {
+        this.limit = limit;
+        int capacity = (int) Math.min(limit, Math.min(MAX_POINTS, fileSize / 16 + 16));
+        this.xs = new double[capacity];
+        this.ys = new double[capacity];
+    }
+
+    // Все точки файла. Двоичный файл, не помещающийся в PointSet, не обрезается молча:
+    // его нужно подбирать блоками через ChunkedAlgorithm
+    public static PointSet load(Path path) throws IOException {
+        if (BinaryPointFile.isBinary(path)) {
+            BinaryPointFile file = BinaryPointFile.open(path);
+            if (file.size() > MAX_POINTS) {
+                throw new IOException("В файле " + file.size() + " точек, в память помещается не больше " + MAX_POINTS);
+            }
+            return file.toPointSet();
+        }
+        return load(path, MAX_POINTS);
+    }
+
+    // Читает не больше limit точек; остаток файла не просматривается.
+    // Двоичные файлы (BinaryPointFile) распознаются по сигнатуре.
+    public static PointSet load(Path path, int limit) throws IOException {
+        if (BinaryPointFile.isBinary(path)) {
+            return BinaryPointFile.open(path).toPointSet(limit);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            PointFileLoader loader = new PointFileLoader(limit, size);
+            loader.read(channel, size);
+            return new PointSet(loader.xs, loader.ys, loader.count);
+        }
+    }
+
+    private void read(FileChannel channel, long size) throws IOException {
+        long position = 0;
+        while (position < size && count < limit) {
+            long length = Math.min(WINDOW_SIZE, size - position);
+            boolean lastWindow = position + length == size;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            int end = (int) length;
+
+            int i = 0;
+            while (i < end && count < limit) {
+                if (isSeparator(buffer.get(i))) {
+                    i++;
+                    continue;
+                }
+                int tokenStart = i;
+                while (i < end && !isSeparator(buffer.get(i))) {
+                    i++;
+                }
+                if (i == end && !lastWindow) {
+                    // Число может продолжаться в следующем окне
+                    i = tokenStart;
+                    break;
+                }
+                accept(parseDouble(buffer, tokenStart, i, position + tokenStart));
+            }
+
+            if (i == 0 && !lastWindow) {
+                throw new IOException("Некорректный формат данных в файле: слишком длинное значение");
+            }
+            position += i;
+        }
+
+        if (pendingX) {
+            throw new IOException("Некорректный формат данных в файле: нечётное количество чисел");
+        }
+    }
+
+    private void accept(double value) throws IOException {
+        if (!pendingX) {
+            x = value;
+            pendingX = true;
+            return;
+        }
+        if (count == xs.length) {
+            grow();
+        }
+        xs[count] = x;
+        ys[count] = value;
+        count++;
+        pendingX = false;
+    }
+
+    private void grow() throws IOException {
+        if (count >= MAX_POINTS) {
+            throw new IOException("Слишком много точек в файле");
+        }
+        int capacity = (int) Math.min(MAX_POINTS, Math.max(16L, count * 2L));
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == ',' || b == '\f';
+    }
+
+    // Быстрый путь без создания строк: мантисса до 15 значащих цифр и порядок до 22
+    // дают точно округлённый результат одним умножением или делением. Остальные
+    // случаи (длинные мантиссы, NaN, Infinity, ошибки) разбирает Double.parseDouble.
+    // Используется и разбором JSON в PointJsonReader
+    static double parseDouble(ByteBuffer buffer, int from, int to, long offset) throws IOException {
+        int i = from;
+        boolean negative = false;
+        byte c = buffer.get(i);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean anyDigits = false;
+
+        while (i < to && isDigit(c = buffer.get(i))) {
+            if (mantissa != 0 || c != '0') {
+                significantDigits++;
+            }
+            mantissa = mantissa * 10 + (c - '0');
+            anyDigits = true;
+            i++;
+            if (significantDigits > MAX_EXACT_DIGITS) {
+                return parseSlow(buffer, from, to, offset);
+            }
+        }
+
+        if (i < to && buffer.get(i) == '.') {
+            i++;
+            while (i < to && isDigit(c = buffer.get(i))) {
+                if (mantissa != 0 || c != '0') {
+                    significantDigits++;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                exponent--;
+                anyDigits = true;
+                i++;
+                if (significantDigits > MAX_EXACT_DIGITS) {
+                    return parseSlow(buffer, from, to, offset);
+                }
+            }
+        }
+
+        if (!anyDigits) {
+            return parseSlow(buffer, from, to, offset);
+        }
+
+        if (i < to && ((c = buffer.get(i)) == 'e' || c == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && ((c = buffer.get(i)) == '-' || c == '+')) {
+                negativeExponent = c == '-';
+                i++;
+            }
+            int explicitExponent = 0;
+            int exponentStart = i;
+            while (i < to && isDigit(c = buffer.get(i))) {
+                explicitExponent = explicitExponent * 10 + (c - '0');
+                i++;
+                if (explicitExponent > 1000) {
+                    return parseSlow(buffer, from, to, offset);
+                }
+            }
+            if (i == exponentStart) {
+                return parseSlow(buffer, from, to, offset);
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (i != to || exponent < -22 || exponent > 22) {
+            return parseSlow(buffer, from, to, offset);
+        }
+
+        double value = mantissa;
+        if (exponent < 0) {
+            value /= POWERS_OF_TEN[-exponent];
+        } else {
+            value *= POWERS_OF_TEN[exponent];
+        }
+        return negative ? -value : value;
+    }
+
+    private static double parseSlow(ByteBuffer buffer, int from, int to, long offset) throws IOException {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        String token = new String(bytes, StandardCharsets.US_ASCII);
+        try {
+            return Double.parseDouble(token);
+        } catch (NumberFormatException e) {
+            throw new IOException("Некорректный формат данных в файле: \"" + token + "\" (байт " + offset + ")");
+        }
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
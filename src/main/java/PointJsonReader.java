@@ -0,0 +1,264 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Потоковый разбор точек из JSON без построения дерева документа: байты читаются
+// буфером фиксированного размера, числа разбираются сразу в растущие массивы double.
+// Принимается объект {"x": [...], "y": [...]} или {"points": [[x, y], ...]};
+// остальные поля пропускаются.
+public class PointJsonReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+    // Длиннее числа в JSON не бывает без потери смысла
+    private static final int MAX_TOKEN = 512;
+    private static final int MAX_POINTS = Integer.MAX_VALUE - 8;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long consumed;
+
+    private final byte[] token = new byte[MAX_TOKEN];
+    private final ByteBuffer tokenBuffer = ByteBuffer.wrap(token);
+
+    private PointJsonReader(InputStream in) {
+        this.in = in;
+    }
+
+    // sizeHint — ожидаемое число точек (например, по длине тела), 0 — неизвестно
+    public static PointSet read(InputStream in, int sizeHint) throws IOException {
+        return new PointJsonReader(in).readDocument(sizeHint);
+    }
+
+    private PointSet readDocument(int sizeHint) throws IOException {
+        int capacity = Math.max(16, Math.min(sizeHint, 1 << 24));
+        Column xs = null;
+        Column ys = null;
+        Column pairs = null;
+
+        expect('{');
+        if (peekNonSpace() == '}') {
+            next();
+        } else {
+            while (true) {
+                String key = readKey();
+                expect(':');
+                switch (key) {
+                    case "x":
+                        xs = readArray(capacity);
+                        break;
+                    case "y":
+                        ys = readArray(capacity);
+                        break;
+                    case "points":
+                        pairs = readPairs(capacity);
+                        break;
+                    default:
+                        skipValue();
+                }
+                int c = nextNonSpace();
+                if (c == '}') break;
+                if (c != ',') throw error("ожидалась ',' или '}'");
+            }
+        }
+        if (nextNonSpace() != -1) {
+            throw error("лишние данные после объекта");
+        }
+
+        if (pairs != null) {
+            if (xs != null || ys != null) {
+                throw new IOException("Некорректный JSON: заданы и \"points\", и \"x\"/\"y\"");
+            }
+            int n = pairs.size / 2;
+            double[] px = new double[n];
+            double[] py = new double[n];
+            for (int i = 0; i < n; i++) {
+                px[i] = pairs.values[2 * i];
+                py[i] = pairs.values[2 * i + 1];
+            }
+            return new PointSet(px, py);
+        }
+        if (xs == null || ys == null) {
+            throw new IOException("Некорректный JSON: нет массивов \"x\" и \"y\"");
+        }
+        if (xs.size != ys.size) {
+            throw new IOException("Некорректный JSON: в \"x\" " + xs.size + " чисел, в \"y\" " + ys.size);
+        }
+        return new PointSet(xs.values, ys.values, xs.size);
+    }
+
+    private Column readArray(int capacity) throws IOException {
+        Column column = new Column(capacity);
+        expect('[');
+        if (peekNonSpace() == ']') {
+            next();
+            return column;
+        }
+        while (true) {
+            column.add(readNumber());
+            int c = nextNonSpace();
+            if (c == ']') return column;
+            if (c != ',') throw error("ожидалась ',' или ']'");
+        }
+    }
+
+    // Пары [x, y] подряд в одном массиве: чётные элементы — x, нечётные — y
+    private Column readPairs(int capacity) throws IOException {
+        Column column = new Column(capacity * 2);
+        expect('[');
+        if (peekNonSpace() == ']') {
+            next();
+            return column;
+        }
+        while (true) {
+            expect('[');
+            column.add(readNumber());
+            expect(',');
+            column.add(readNumber());
+            expect(']');
+            int c = nextNonSpace();
+            if (c == ']') return column;
+            if (c != ',') throw error("ожидалась ',' или ']'");
+        }
+    }
+
+    private double readNumber() throws IOException {
+        peekNonSpace();
+        long start = consumed + position;
+        int length = 0;
+        int c;
+        while ((c = peek()) != -1 && isNumberByte(c)) {
+            if (length == MAX_TOKEN) throw error("слишком длинное число");
+            token[length++] = (byte) c;
+            position++;
+        }
+        if (length == 0) throw error("ожидалось число");
+        try {
+            return PointFileLoader.parseDouble(tokenBuffer, 0, length, start);
+        } catch (IOException e) {
+            throw new IOException("Некорректный JSON: \""
+                    + new String(token, 0, length, StandardCharsets.US_ASCII) + "\" не число (байт " + start + ")");
+        }
+    }
+
+    private static boolean isNumberByte(int c) {
+        return c >= '0' && c <= '9' || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+    }
+
+    // Ключи сравниваются как строки; они короткие и встречаются по разу
+    private String readKey() throws IOException {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = next()) != '"') {
+            if (c == -1) throw error("незакрытая строка");
+            if (c == '\\') {
+                c = next();
+                if (c == -1) throw error("незакрытая строка");
+            }
+            sb.append((char) c);
+        }
+        return sb.toString();
+    }
+
+    // Пропускает значение любого вида, не сохраняя его
+    private void skipValue() throws IOException {
+        int c = peekNonSpace();
+        if (c == '"') {
+            next();
+            skipStringBody();
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                c = next();
+                if (c == -1) throw error("незакрытый объект или массив");
+                if (c == '"') {
+                    skipStringBody();
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            } while (depth > 0);
+        } else {
+            // число, true, false, null
+            int length = 0;
+            while ((c = peek()) != -1 && c != ',' && c != '}' && c != ']' && !isSpace(c)) {
+                position++;
+                length++;
+            }
+            if (length == 0) throw error("ожидалось значение");
+        }
+    }
+
+    private void skipStringBody() throws IOException {
+        int c;
+        while ((c = next()) != '"') {
+            if (c == -1) throw error("незакрытая строка");
+            if (c == '\\' && next() == -1) throw error("незакрытая строка");
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        if (nextNonSpace() != expected) {
+            throw error("ожидался '" + expected + "'");
+        }
+    }
+
+    private int nextNonSpace() throws IOException {
+        peekNonSpace();
+        return next();
+    }
+
+    private int peekNonSpace() throws IOException {
+        int c;
+        while ((c = peek()) != -1 && isSpace(c)) {
+            position++;
+        }
+        return c;
+    }
+
+    private static boolean isSpace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private int next() throws IOException {
+        int c = peek();
+        if (c != -1) position++;
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            consumed += limit;
+            position = 0;
+            limit = Math.max(0, in.read(buffer));
+            if (limit == 0) return -1;
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    private IOException error(String message) {
+        return new IOException("Некорректный JSON: " + message + " (байт " + (consumed + position) + ")");
+    }
+
+    // Растущий массив чисел: ёмкость удваивается, как в PointFileLoader
+    private static final class Column {
+        double[] values;
+        int size;
+
+        Column(int capacity) {
+            values = new double[capacity];
+        }
+
+        void add(double value) throws IOException {
+            if (size == values.length) {
+                if (size == MAX_POINTS) throw new IOException("Слишком много точек");
+                values = Arrays.copyOf(values, (int) Math.min(MAX_POINTS, size * 2L));
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+import java.util.ArrayList;
+import java.util.List;
+
+public class PointSet {
+    private final double[] xs;
+    private final double[] ys;
+    private final int size;
+
+    public PointSet(double[] xs, double[] ys) {
+        this(xs, ys, xs.length);
+    }
+
+    // Массивы не копируются: набор работает поверх переданных колонок
+    public PointSet(double[] xs, double[] ys, int size) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("Колонки x и y имеют разную длину");
+        }
+        if (size < 0 || size > xs.length) {
+            throw new IllegalArgumentException("Некорректное количество точек: " + size);
+        }
+        this.xs = xs;
+        this.ys = ys;
+        this.size = size;
+    }
+
+    public static PointSet fromList(List<MyPoint> points) {
+        int n = points.size();
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            MyPoint point = points.get(i);
+            xs[i] = point.getX();
+            ys[i] = point.getY();
+        }
+        return new PointSet(xs, ys, n);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public double getX(int index) {
+        return xs[index];
+    }
+
+    public double getY(int index) {
+        return ys[index];
+    }
+
+    public double[] getXs() {
+        return xs;
+    }
+
+    public double[] getYs() {
+        return ys;
+    }
+
+    public List<MyPoint> toList() {
+        List<MyPoint> points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            points.add(new MyPoint(xs[i], ys[i]));
+        }
+        return points;
+    }
+
+    @Override
+    public String toString() {
+        return "PointSet[" + size + "]";
+    }
+}
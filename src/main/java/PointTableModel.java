@@ -0,0 +1,208 @@
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+
+// Модель таблицы точек поверх двух колонок double. Незаполненная ячейка — NaN.
+// Значение разбирается один раз при вводе; toPointSet отдаёт колонки без копирования,
+// если все строки заполнены: после этого массивы считаются общими и копируются
+// при первом изменении (копирование при записи), так что фоновый расчёт
+// не видит последующих правок.
+public class PointTableModel extends AbstractTableModel {
+    public static final int INDEX_COLUMN = 0;
+    public static final int X_COLUMN = 1;
+    public static final int Y_COLUMN = 2;
+
+    private static final String[] COLUMN_NAMES = {"№", "X", "Y"};
+
+    private double[] xs = new double[16];
+    private double[] ys = new double[16];
+    private int size;
+    // Строк, где x или y не заполнен
+    private int incomplete;
+    private boolean shared;
+
+    @Override
+    public int getRowCount() {
+        return size;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column != INDEX_COLUMN;
+    }
+
+    // Форматируются только видимые ячейки, поэтому строки не хранятся
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (column == INDEX_COLUMN) {
+            return String.valueOf(row + 1);
+        }
+        double value = column == X_COLUMN ? xs[row] : ys[row];
+        return Double.isNaN(value) ? "" : format(value);
+    }
+
+    // value — Double из редактора или строка; пустая строка очищает ячейку
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        double parsed;
+        if (value instanceof Double) {
+            parsed = (Double) value;
+        } else {
+            String text = value == null ? "" : value.toString().trim();
+            parsed = text.isEmpty() ? Double.NaN : parse(text);
+        }
+        set(row, column, parsed);
+        fireTableCellUpdated(row, column);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getIncompleteCount() {
+        return incomplete;
+    }
+
+    public double getX(int row) {
+        return xs[row];
+    }
+
+    public double getY(int row) {
+        return ys[row];
+    }
+
+    // Заполненные строки; незаполненные пропускаются
+    public PointSet toPointSet() {
+        if (incomplete == 0) {
+            shared = true;
+            return new PointSet(xs, ys, size);
+        }
+        double[] outX = new double[size - incomplete];
+        double[] outY = new double[size - incomplete];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (!Double.isNaN(xs[i]) && !Double.isNaN(ys[i])) {
+                outX[count] = xs[i];
+                outY[count] = ys[i];
+                count++;
+            }
+        }
+        return new PointSet(outX, outY, count);
+    }
+
+    // Колонки набора не копируются и тоже считаются общими
+    public void setPoints(PointSet points) {
+        xs = points.getXs();
+        ys = points.getYs();
+        size = points.size();
+        shared = true;
+        incomplete = 0;
+        for (int i = 0; i < size; i++) {
+            if (Double.isNaN(xs[i]) || Double.isNaN(ys[i])) incomplete++;
+        }
+        fireTableDataChanged();
+    }
+
+    public void addEmptyRows(int count) {
+        int from = size;
+        ensureCapacity(size + count);
+        Arrays.fill(xs, from, from + count, Double.NaN);
+        Arrays.fill(ys, from, from + count, Double.NaN);
+        size += count;
+        incomplete += count;
+        fireTableRowsInserted(from, size - 1);
+    }
+
+    // rows — номера строк по возрастанию; удаление одним проходом
+    public void removeRows(int[] rows) {
+        if (rows.length == 0) return;
+        ensureCapacity(size);
+        int next = 0;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (next < rows.length && rows[next] == i) {
+                next++;
+                if (Double.isNaN(xs[i]) || Double.isNaN(ys[i])) incomplete--;
+                continue;
+            }
+            xs[count] = xs[i];
+            ys[count] = ys[i];
+            count++;
+        }
+        size = count;
+        fireTableDataChanged();
+    }
+
+    // Вставка столбцов, начиная со строки row: values[k] — значения строки row + k,
+    // по одному (в колонку column) или по два (x и y). Недостающие строки добавляются.
+    public void paste(int row, int column, double[][] values) {
+        int end = row + values.length;
+        if (end > size) {
+            int from = size;
+            ensureCapacity(end);
+            Arrays.fill(xs, from, end, Double.NaN);
+            Arrays.fill(ys, from, end, Double.NaN);
+            incomplete += end - from;
+            size = end;
+        } else {
+            ensureCapacity(size);
+        }
+        for (int k = 0; k < values.length; k++) {
+            double[] line = values[k];
+            if (line.length == 1) {
+                set(row + k, column, line[0]);
+            } else {
+                set(row + k, X_COLUMN, line[0]);
+                set(row + k, Y_COLUMN, line[1]);
+            }
+        }
+        fireTableDataChanged();
+    }
+
+    // Запятая допускается как десятичный разделитель
+    public static double parse(String text) {
+        return Double.parseDouble(text.trim().replace(',', '.'));
+    }
+
+    public static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return String.valueOf((long) value);
+        }
+        return String.valueOf(value);
+    }
+
+    private void set(int row, int column, double value) {
+        if (column == INDEX_COLUMN) {
+            throw new IllegalArgumentException("Номер строки не редактируется");
+        }
+        ensureCapacity(size);
+        boolean wasComplete = !Double.isNaN(xs[row]) && !Double.isNaN(ys[row]);
+        if (column == X_COLUMN) {
+            xs[row] = value;
+        } else {
+            ys[row] = value;
+        }
+        boolean complete = !Double.isNaN(xs[row]) && !Double.isNaN(ys[row]);
+        if (wasComplete && !complete) incomplete++;
+        if (!wasComplete && complete) incomplete--;
+    }
+
+    // Общие массивы перед изменением копируются
+    private void ensureCapacity(int capacity) {
+        if (!shared && capacity <= xs.length) return;
+        int length = Math.max(capacity, shared ? size : xs.length * 2);
+        length = Math.max(length, 16);
+        xs = Arrays.copyOf(xs, length);
+        ys = Arrays.copyOf(ys, length);
+        shared = false;
+    }
+}
@@ -1,36 +1,54 @@
 import javax.swing.*;
+import javax.swing.border.LineBorder;
 import java.awt.*;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.UnsupportedFlavorException;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.regex.Pattern;
 
+// Точки редактируются в JTable поверх PointTableModel: таблица рисует только видимые
+// строки, поэтому число точек не ограничено. Ctrl+V вставляет столбцы из буфера обмена
+// начиная с выделенной строки.
 public class PointsInputPanel extends JPanel {
     private static final int INITIAL_POINTS = 8;
-    private static final int MAX_POINTS = 12;
-    private static final int MIN_POINTS = 8;
+    static final int MIN_POINTS = 8;
 
-    private ArrayList<JTextField> xFields;
-    private ArrayList<JTextField> yFields;
+    // Табуляция, пробелы или точка с запятой; запятая — десятичный разделитель
+    private static final Pattern PASTE_SEPARATOR = Pattern.compile("[\\s;]+");
+    private static final Pattern LINE_SEPARATOR = Pattern.compile("\\r?\\n|\\r");
+
+    private final PointTableModel model = new PointTableModel();
+    // Двоичный файл, первые точки которого показаны в таблице; сбрасывается
+    // при любом изменении таблицы
+    private BinaryPointFile sourceFile;
+    private JTable table;
     private JButton addButton;
     private JButton removeButton;
-    private JPanel pointsPanel;
 
     public PointsInputPanel() {
-        xFields = new ArrayList<>();
-        yFields = new ArrayList<>();
-
         setLayout(new BorderLayout());
 
-        pointsPanel = new JPanel(new GridBagLayout());
-        GridBagConstraints gbc = new GridBagConstraints();
-        gbc.insets = new Insets(5, 5, 5, 5);
-        gbc.fill = GridBagConstraints.HORIZONTAL;
-
-        for (int i = 0; i < INITIAL_POINTS; i++) {
-            addPointFields(gbc);
-        }
+        table = new JTable(model);
+        table.setFillsViewportHeight(true);
+        table.setDefaultEditor(Object.class, new ValueEditor());
+        table.getColumnModel().getColumn(PointTableModel.INDEX_COLUMN).setPreferredWidth(60);
+        table.getColumnModel().getColumn(PointTableModel.INDEX_COLUMN).setMaxWidth(80);
+        table.getInputMap(JComponent.WHEN_FOCUSED).put(KeyStroke.getKeyStroke("ctrl V"), "pastePoints");
+        table.getActionMap().put("pastePoints", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                pasteFromClipboard();
+            }
+        });
+        model.addEmptyRows(INITIAL_POINTS);
+        model.addTableModelListener(e -> sourceFile = null);
 
-        add(pointsPanel, BorderLayout.CENTER);
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(400, 270));
+        add(scrollPane, BorderLayout.CENTER);
 
         JPanel buttonsPanel = new JPanel();
         addButton = new JButton("Добавить точку");
@@ -39,24 +57,34 @@ public class PointsInputPanel extends JPanel {
         addButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                if (xFields.size() < MAX_POINTS) {
-                    addPointFields(gbc);
-                    pointsPanel.revalidate();
-                    pointsPanel.repaint();
-                    updateButtonsState();
-                }
+                model.addEmptyRows(1);
+                int last = model.size() - 1;
+                table.scrollRectToVisible(table.getCellRect(last, PointTableModel.X_COLUMN, true));
+                updateButtonsState();
             }
         });
 
+        // Удаляются выделенные строки, без выделения — последняя
         removeButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                if (xFields.size() > MIN_POINTS) {
-                    removePointFields();
-                    pointsPanel.revalidate();
-                    pointsPanel.repaint();
-                    updateButtonsState();
+                if (table.isEditing()) {
+                    table.getCellEditor().cancelCellEditing();
                 }
+                int[] rows = table.getSelectedRows();
+                if (rows.length == 0) {
+                    rows = new int[]{model.size() - 1};
+                }
+                int removable = model.size() - MIN_POINTS;
+                if (rows.length > removable) {
+                    // Оставляем не меньше MIN_POINTS строк: удаляются последние из выделенных
+                    int[] kept = new int[Math.max(removable, 0)];
+                    System.arraycopy(rows, rows.length - kept.length, kept, 0, kept.length);
+                    rows = kept;
+                }
+                model.removeRows(rows);
+                table.clearSelection();
+                updateButtonsState();
             }
         });
 
@@ -68,89 +96,132 @@ public class PointsInputPanel extends JPanel {
         updateButtonsState();
     }
 
-    public JTextField getXField(int index) {
-        return xFields.get(index);
+    public PointTableModel getModel() {
+        return model;
     }
 
-    public JTextField getYField(int index) {
-        return yFields.get(index);
+    // Заменяет все точки; колонки набора не копируются
+    public void setPoints(PointSet points) {
+        if (table.isEditing()) {
+            table.getCellEditor().cancelCellEditing();
+        }
+        model.setPoints(points);
+        updateButtonsState();
     }
 
-    public ArrayList<JTextField> getXFields() {
-        return xFields;
+    // preview — первые точки файла source: аппроксимация пойдёт по всему файлу,
+    // пока таблицу не изменят
+    public void setPoints(PointSet preview, BinaryPointFile source) {
+        setPoints(preview);
+        sourceFile = source;
     }
 
-    public ArrayList<JTextField> getYFields() {
-        return yFields;
+    public BinaryPointFile getSourceFile() {
+        return sourceFile;
     }
 
-    public void addPointFields() {
-        GridBagConstraints gbc = new GridBagConstraints();
-        gbc.insets = new Insets(5, 5, 5, 5);
-        gbc.fill = GridBagConstraints.HORIZONTAL;
-        addPointFields(gbc);
+    // Заполненные строки без копирования ячеек таблицы; незаполненные пропускаются,
+    // их число — getModel().getIncompleteCount()
+    public PointSet getPointSet() {
+        if (table.isEditing()) {
+            table.getCellEditor().stopCellEditing();
+        }
+        return model.toPointSet();
     }
 
-
-    private void addPointFields(GridBagConstraints gbc) {
-        JTextField xField = new JTextField(5);
-        JTextField yField = new JTextField(5);
-
-        xFields.add(xField);
-        yFields.add(yField);
-
-        gbc.gridx = 0;
-        gbc.gridy = xFields.size() - 1;
-        pointsPanel.add(new JLabel("X" + (xFields.size()) + ":"), gbc);
-
-        gbc.gridx = 1;
-        pointsPanel.add(xField, gbc);
-
-        gbc.gridx = 2;
-        pointsPanel.add(new JLabel("Y" + (yFields.size()) + ":"), gbc);
-
-        gbc.gridx = 3;
-        pointsPanel.add(yField, gbc);
-
-        int panelHeight = (xFields.size() + 1) * 30;
-        pointsPanel.setPreferredSize(new Dimension(400, panelHeight));
+    public ArrayList<MyPoint> getPoints() {
+        PointSet pointSet = getPointSet();
+        ArrayList<MyPoint> points = new ArrayList<>(pointSet.size());
+        for (int i = 0; i < pointSet.size(); i++) {
+            points.add(new MyPoint(pointSet.getX(i), pointSet.getY(i)));
+        }
+        return points;
     }
 
-    private void removePointFields() {
-        if (xFields.size() > MIN_POINTS) {
-            int lastIndex = xFields.size() - 1;
-
-            pointsPanel.remove(xFields.get(lastIndex));
-            pointsPanel.remove(yFields.get(lastIndex));
+    private void updateButtonsState() {
+        removeButton.setEnabled(model.size() > MIN_POINTS);
+    }
 
-            pointsPanel.remove(pointsPanel.getComponent(pointsPanel.getComponentCount() - 1));
-            pointsPanel.remove(pointsPanel.getComponent(pointsPanel.getComponentCount() - 1));
+    // В строке буфера одно число (в колонку выделенной ячейки) или два (x и y).
+    // Весь текст разбирается до изменения таблицы: при ошибке таблица не меняется.
+    private void pasteFromClipboard() {
+        String text;
+        try {
+            text = (String) Toolkit.getDefaultToolkit().getSystemClipboard().getData(DataFlavor.stringFlavor);
+        } catch (UnsupportedFlavorException | IOException | IllegalStateException e) {
+            return;
+        }
 
-            xFields.remove(lastIndex);
-            yFields.remove(lastIndex);
+        String[] lines = LINE_SEPARATOR.split(text.strip());
+        double[][] values = new double[lines.length][];
+        for (int k = 0; k < lines.length; k++) {
+            String line = lines[k].strip();
+            String[] tokens = PASTE_SEPARATOR.split(line);
+            // "x,y" без пробелов: запятая здесь разделяет числа
+            if (tokens.length == 1 && line.indexOf(',') >= 0 && line.indexOf(',') == line.lastIndexOf(',')
+                    && line.indexOf('.') >= 0) {
+                tokens = line.split(",");
+            }
+            try {
+                if (tokens.length == 1 && !tokens[0].isEmpty()) {
+                    values[k] = new double[]{PointTableModel.parse(tokens[0])};
+                } else if (tokens.length == 2) {
+                    values[k] = new double[]{PointTableModel.parse(tokens[0]), PointTableModel.parse(tokens[1])};
+                } else {
+                    throw new NumberFormatException();
+                }
+            } catch (NumberFormatException e) {
+                JOptionPane.showMessageDialog(this, "Некорректная строка " + (k + 1) + ": " + line,
+                        "Ошибка", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        }
 
-            int panelHeight = (xFields.size() + 1) * 30;
-            pointsPanel.setPreferredSize(new Dimension(400, panelHeight));
+        if (table.isEditing()) {
+            table.getCellEditor().cancelCellEditing();
         }
+        int row = table.getSelectedRow();
+        if (row < 0) row = 0;
+        int column = table.getSelectedColumn();
+        if (column != PointTableModel.Y_COLUMN) column = PointTableModel.X_COLUMN;
+        model.paste(row, column, values);
+        updateButtonsState();
     }
 
-    private void updateButtonsState() {
-        addButton.setEnabled(xFields.size() < MAX_POINTS);
-        removeButton.setEnabled(xFields.size() > MIN_POINTS);
-    }
+    // Разбирает значение один раз при завершении правки; некорректное не принимается,
+    // и ячейка остаётся в режиме правки с красной рамкой
+    private static final class ValueEditor extends DefaultCellEditor {
+        private Double value;
 
-    public ArrayList<MyPoint> getPoints() {
-        ArrayList<MyPoint> points = new ArrayList<>();
-        for (int i = 0; i < xFields.size(); i++) {
+        ValueEditor() {
+            super(new JTextField());
+        }
+
+        @Override
+        public boolean stopCellEditing() {
+            JTextField field = (JTextField) getComponent();
+            String text = field.getText().trim();
             try {
-                double x = Double.parseDouble(xFields.get(i).getText().replace(",", "."));
-                double y = Double.parseDouble(yFields.get(i).getText().replace(",", "."));
-                points.add(new MyPoint(x, y));
+                value = text.isEmpty() ? Double.NaN : PointTableModel.parse(text);
             } catch (NumberFormatException e) {
-                System.out.println("Некорректное значение в точке " + (i + 1));
+                field.setBorder(new LineBorder(Color.RED));
+                return false;
             }
+            return super.stopCellEditing();
+        }
+
+        @Override
+        public Component getTableCellEditorComponent(JTable table, Object value, boolean isSelected, int row, int column) {
+            JTextField field = (JTextField) super.getTableCellEditorComponent(table, value, isSelected, row, column);
+            field.setBorder(new LineBorder(Color.BLACK));
+            this.value = null;
+            return field;
+        }
+
+        @Override
+        public Object getCellEditorValue() {
+            return value;
         }
-        return points;
     }
 
     public static void test(String[] args) {
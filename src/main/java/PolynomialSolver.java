@@ -0,0 +1,168 @@
+import java.util.Arrays;
+
+// МНК-полином степени d с выбором метода решения.
+// CHOLESKY — нормальные уравнения по суммам Σt^k (один проход, система m×m),
+// QR — отражения Хаусхолдера по строкам матрицы плана (StreamingQR): медленнее, но число
+// обусловленности задачи не возводится в квадрат.
+// При centered аргумент приводится к t = (x − s)/h ∈ [−1, 1] (s и h — середина и
+// полуширина отрезка x): от больших смещений x столбцы t^k перестают быть почти
+// линейно зависимыми. Коэффициенты возвращаются по возрастанию степеней x; перевод
+// из t в x точен алгебраически, но сами коэффициенты при большом смещении неизбежно
+// велики и сокращаются при вычислении значения.
+public class PolynomialSolver {
+
+    public enum Method {
+        CHOLESKY, QR
+    }
+
+    // Выше этого числа обусловленности решаемой системы в ответе остаётся меньше
+    // четырёх верных знаков
+    public static final double ILL_CONDITIONED = 1e12;
+
+    public static final PolynomialSolver DEFAULT = new PolynomialSolver(Method.CHOLESKY, true);
+
+    private final Method method;
+    private final boolean centered;
+
+    public PolynomialSolver(Method method, boolean centered) {
+        this.method = method;
+        this.centered = centered;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public boolean isCentered() {
+        return centered;
+    }
+
+    public static final class Solution {
+        private final double[] coefficients;
+        private final double conditionNumber;
+
+        Solution(double[] coefficients, double conditionNumber) {
+            this.coefficients = coefficients;
+            this.conditionNumber = conditionNumber;
+        }
+
+        // По возрастанию степеней x; NaN, если система вырождена
+        public double[] getCoefficients() {
+            return coefficients;
+        }
+
+        // Для CHOLESKY — нормальной матрицы после приведения диагонали к единицам,
+        // для QR — треугольника R, то есть самой матрицы плана
+        public double getConditionNumber() {
+            return conditionNumber;
+        }
+
+        public boolean isIllConditioned() {
+            return !(conditionNumber <= ILL_CONDITIONED);
+        }
+    }
+
+    public Solution fit(PointSet points, int degree) {
+        return fit(points.getXs(), points.getYs(), null, 0, points.size(), degree);
+    }
+
+    // Взвешенный МНК: минимизируется Σw·r² (строки плана умножаются на √w);
+    // weights == null — все веса равны 1
+    public Solution fit(PointSet points, double[] weights, int degree) {
+        return fit(points.getXs(), points.getYs(), weights, 0, points.size(), degree);
+    }
+
+    // Отрезок центрирования берётся по всем точкам [from, to), в том числе с нулевым весом
+    Solution fit(double[] xs, double[] ys, double[] weights, int from, int to, int degree) {
+        double[] centering = centered ? centering(xs, from, to) : new double[]{0, 1};
+        return fit(xs, ys, weights, from, to, degree, centering[0], centering[1]);
+    }
+
+    // {s, h} — середина и полуширина отрезка x в [from, to); {0, 1}, если точек нет
+    static double[] centering(double[] xs, int from, int to) {
+        if (to <= from) return new double[]{0, 1};
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, xs[i]);
+            max = Math.max(max, xs[i]);
+        }
+        return new double[]{(min + max) / 2, max > min ? (max - min) / 2 : 1};
+    }
+
+    // С готовым центрированием t = (x − shift)/halfWidth: кто решает много задач на одних
+    // и тех же x (итерации IRLS), находит отрезок один раз
+    Solution fit(double[] xs, double[] ys, double[] weights, int from, int to, int degree,
+                 double shift, double halfWidth) {
+        if (degree < 1) {
+            throw new IllegalArgumentException("Степень полинома должна быть положительной");
+        }
+        int m = degree + 1;
+        double[] c = new double[m];
+        double condition;
+        if (method == Method.QR) {
+            StreamingQR qr = new StreamingQR(m);
+            for (int i = from; i < to; i++) {
+                qr.addPolynomial((xs[i] - shift) / halfWidth, ys[i], weights == null ? 1 : weights[i]);
+            }
+            qr.solve(c);
+            condition = qr.conditionNumber();
+        } else {
+            double[] powerSums = new double[2 * degree + 1];
+            double[] momentSums = new double[m];
+            Algorithm.accumulatePowerSums(xs, ys, weights, from, to, shift, halfWidth, 0, powerSums, momentSums);
+            condition = solveNormal(powerSums, momentSums, m, c);
+        }
+        return new Solution(toPowerBasis(c, shift, halfWidth), condition);
+    }
+
+    // Нормальная система по суммам powerSums[k] = Σt^k, momentSums[k] = Σt^k·y, решение —
+    // в c (m элементов). Возвращает число обусловленности; если система вырождена,
+    // c заполняется NaN. Этим же решаются полиномы FitStatistics и PolynomialSweep.
+    static double solveNormal(double[] powerSums, double[] momentSums, int m, double[] c) {
+        double[] gram = hankel(powerSums, m);
+        double[] scale = new double[m];
+        double[] l = new double[m * m];
+        if (SmallMatrix.choleskyEquilibrated(gram, 0, m, 0, scale, l) != m) {
+            Arrays.fill(c, 0, m, Double.NaN);
+            return Double.POSITIVE_INFINITY;
+        }
+        SmallMatrix.choleskySolve(l, scale, m, momentSums, 0, c, 0);
+        return SmallMatrix.choleskyCondition(l, m, new double[m]);
+    }
+
+    // G[i][j] = Σt^(i+j)
+    static double[] hankel(double[] powerSums, int m) {
+        double[] gram = new double[m * m];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                gram[i * m + j] = powerSums[i + j];
+            }
+        }
+        return gram;
+    }
+
+    // Σ c_k·((x − s)/h)^k → Σ a_j·x^j: деление на h^k, затем сдвиг схемой Горнера
+    static double[] toPowerBasis(double[] c, double shift, double halfWidth) {
+        int m = c.length;
+        double[] a = new double[m];
+        double factor = 1;
+        for (int k = 0; k < m; k++) {
+            a[k] = c[k] / factor;
+            factor *= halfWidth;
+        }
+        shiftBasis(a, 0, a.length, shift);
+        return a;
+    }
+
+    // На месте: Σ c_k·(x − s)^k → Σ a_j·x^j для c[offset ... offset + m)
+    static void shiftBasis(double[] c, int offset, int m, double shift) {
+        if (shift == 0) return;
+        // p(x) = q(x − s): для каждого k сдвиг на −s через синтетическое деление
+        for (int k = 0; k < m - 1; k++) {
+            for (int j = m - 2; j >= k; j--) {
+                c[offset + j] -= shift * c[offset + j + 1];
+            }
+        }
+    }
+}
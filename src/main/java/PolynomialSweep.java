@@ -0,0 +1,122 @@
+// Перебор степеней полинома 1..maxDegree по одному проходу данных: суммы Σt^k
+// до 2·maxDegree и Σt^k·u до maxDegree подходят для всех степеней сразу.
+// Как в PolynomialSolver, t = (x − s)/h ∈ [−1, 1], а u = y − ȳ: по суммам исходных x
+// и y нормальная система и остаток теряют точность на данных со смещением.
+// Коэффициенты по возрастанию степеней x.
+public class PolynomialSweep {
+    private final PointSet points;
+    private final int maxDegree;
+    private final long count;
+    private final double shift;
+    private final double halfWidth;
+    private final double meanY;
+    private final double[] powerSums;
+    private final double[] momentSums;
+    private final double sumU2;
+
+    private PolynomialSweep(PointSet points, int maxDegree, long count, double shift, double halfWidth, double meanY,
+                            double[] powerSums, double[] momentSums, double sumU2) {
+        this.points = points;
+        this.maxDegree = maxDegree;
+        this.count = count;
+        this.shift = shift;
+        this.halfWidth = halfWidth;
+        this.meanY = meanY;
+        this.powerSums = powerSums;
+        this.momentSums = momentSums;
+        this.sumU2 = sumU2;
+    }
+
+    public static PolynomialSweep of(PointSet points, int maxDegree) {
+        if (maxDegree < 1) {
+            throw new IllegalArgumentException("Степень полинома должна быть положительной");
+        }
+        int n = points.size();
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sumY = 0;
+        for (int i = 0; i < n; i++) {
+            min = Math.min(min, xs[i]);
+            max = Math.max(max, xs[i]);
+            sumY += ys[i];
+        }
+        double shift = n > 0 ? (min + max) / 2 : 0;
+        double halfWidth = max > min ? (max - min) / 2 : 1;
+        double meanY = n > 0 ? sumY / n : 0;
+
+        double[] powerSums = new double[2 * maxDegree + 1];
+        double[] momentSums = new double[maxDegree + 1];
+        Algorithm.accumulatePowerSums(xs, ys, null, 0, n, shift, halfWidth, meanY, powerSums, momentSums);
+
+        double sumU2 = 0;
+        for (int i = 0; i < n; i++) {
+            double u = ys[i] - meanY;
+            sumU2 += u * u;
+        }
+        return new PolynomialSweep(points, maxDegree, n, shift, halfWidth, meanY, powerSums, momentSums, sumU2);
+    }
+
+    public int getMaxDegree() {
+        return maxDegree;
+    }
+
+    public double[] coefficients(int degree) {
+        double[] a = PolynomialSolver.toPowerBasis(shiftedCoefficients(degree), shift, halfWidth);
+        a[0] += meanY;
+        return a;
+    }
+
+    // По суммам; если остаток по ним ненадёжен — проходом по точкам
+    public double deviation(int degree) {
+        double[] c = shiftedCoefficients(degree);
+        double deviation = Algorithm.polynomialDeviation(powerSums, momentSums, sumU2, c);
+        if (Double.isNaN(deviation)) {
+            deviation = Algorithm.polynomialResiduals(points.getXs(), points.getYs(), 0, points.size(),
+                    shift, halfWidth, meanY, c, 0, c.length);
+        }
+        return deviation;
+    }
+
+    public double r2(int degree) {
+        double meanU = momentSums[0] / count;
+        double totalSS = sumU2 - count * meanU * meanU;
+        return 1 - deviation(degree) / totalSS;
+    }
+
+    // По степеням t, для u
+    private double[] shiftedCoefficients(int degree) {
+        checkDegree(degree);
+        double[] c = new double[degree + 1];
+        PolynomialSolver.solveNormal(powerSums, momentSums, degree + 1, c);
+        return c;
+    }
+
+    // Скорректированный R² штрафует за число параметров: без штрафа сумма
+    // квадратов отклонений не растёт со степенью и всегда побеждал бы maxDegree
+    public double adjustedR2(int degree) {
+        long freedom = count - degree - 1;
+        if (freedom <= 0) return Double.NaN;
+        return 1 - (1 - r2(degree)) * (count - 1) / freedom;
+    }
+
+    public int bestDegree() {
+        int best = 1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int degree = 1; degree <= maxDegree; degree++) {
+            double score = adjustedR2(degree);
+            if (score > bestScore) {
+                bestScore = score;
+                best = degree;
+            }
+        }
+        return best;
+    }
+
+    private void checkDegree(int degree) {
+        if (degree < 1 || degree > maxDegree) {
+            throw new IllegalArgumentException("Степень должна быть от 1 до " + maxDegree);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+// Функции потерь для устойчивой регрессии (IRLS). Вес точки зависит от остатка,
+// делённого на оценку разброса; константы дают 95% эффективности на нормальном шуме.
+public enum RobustLoss {
+    // Квадратичная вблизи нуля и линейная дальше: выбросы учитываются с убывающим весом
+    HUBER(1.345) {
+        @Override
+        public double weight(double u) {
+            double a = Math.abs(u);
+            return a <= getTuningConstant() ? 1 : getTuningConstant() / a;
+        }
+    },
+    // Бивесовая функция Тьюки: точки дальше константы отбрасываются полностью
+    TUKEY(4.685) {
+        @Override
+        public double weight(double u) {
+            double t = u / getTuningConstant();
+            if (Math.abs(t) >= 1) return 0;
+            double s = 1 - t * t;
+            return s * s;
+        }
+    };
+
+    private final double tuningConstant;
+
+    RobustLoss(double tuningConstant) {
+        this.tuningConstant = tuningConstant;
+    }
+
+    public double getTuningConstant() {
+        return tuningConstant;
+    }
+
+    // u — остаток, делённый на оценку разброса
+    public abstract double weight(double u);
+}
@@ -0,0 +1,88 @@
+import java.util.Arrays;
+
+// Прореживание облака точек под разрешение экрана. Видимая область делится на
+// ячейки размером в несколько пикселей, и из каждой занятой ячейки остаётся одна
+// точка: на экране такое облако неотличимо от исходного. Минимум и максимум по
+// столбцу пикселей для диаграммы рассеяния не подходят — они теряют внутренние
+// точки столбца.
+public class ScatterDecimator {
+    private long[] occupied = new long[0];
+    private double[] outX = new double[0];
+    private double[] outY = new double[0];
+    private int size;
+
+    // Крайние по x и y точки всего набора сохраняются всегда, чтобы автоматический
+    // диапазон осей по прореженным данным совпадал с диапазоном исходных.
+    public void decimate(PointSet points, double minX, double maxX, double minY, double maxY,
+                         int columns, int rows) {
+        int n = points.size();
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        size = 0;
+        if (n == 0) return;
+
+        columns = Math.max(1, columns);
+        rows = Math.max(1, rows);
+        long cells = (long) columns * rows;
+        int words = (int) ((cells + 63) >>> 6);
+        if (occupied.length < words) {
+            occupied = new long[words];
+        } else {
+            Arrays.fill(occupied, 0, words, 0);
+        }
+        int capacity = (int) Math.min(n, cells) + 4;
+        if (outX.length < capacity) {
+            outX = new double[capacity];
+            outY = new double[capacity];
+        }
+
+        double scaleX = columns / (maxX - minX);
+        double scaleY = rows / (maxY - minY);
+        int minXIndex = 0, maxXIndex = 0, minYIndex = 0, maxYIndex = 0;
+
+        for (int i = 0; i < n; i++) {
+            double x = xs[i];
+            double y = ys[i];
+            if (x < xs[minXIndex]) minXIndex = i;
+            if (x > xs[maxXIndex]) maxXIndex = i;
+            if (y < ys[minYIndex]) minYIndex = i;
+            if (y > ys[maxYIndex]) maxYIndex = i;
+
+            if (!(x >= minX && x <= maxX && y >= minY && y <= maxY)) continue;
+            int column = Math.min(columns - 1, (int) ((x - minX) * scaleX));
+            int row = Math.min(rows - 1, (int) ((y - minY) * scaleY));
+            long cell = (long) row * columns + column;
+            int word = (int) (cell >>> 6);
+            long bit = 1L << cell;
+            if ((occupied[word] & bit) != 0) continue;
+            occupied[word] |= bit;
+            outX[size] = x;
+            outY[size] = y;
+            size++;
+        }
+
+        append(xs[minXIndex], ys[minXIndex]);
+        append(xs[maxXIndex], ys[maxXIndex]);
+        append(xs[minYIndex], ys[minYIndex]);
+        append(xs[maxYIndex], ys[maxYIndex]);
+    }
+
+    private void append(double x, double y) {
+        outX[size] = x;
+        outY[size] = y;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Массивы переиспользуются между вызовами decimate
+    public double[] getXs() {
+        return outX;
+    }
+
+    public double[] getYs() {
+        return outY;
+    }
+}
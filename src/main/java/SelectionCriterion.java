@@ -0,0 +1,22 @@
+// Критерий выбора лучшей функции; меньшее значение лучше
+public enum SelectionCriterion {
+    // Сумма квадратов отклонений: всегда предпочитает модели с большим числом параметров
+    DEVIATION("Сумма квадратов отклонений"),
+    // n·ln(S/n) + 2k
+    AIC("Критерий Акаике"),
+    // n·ln(S/n) + k·ln(n), штрафует параметры сильнее AIC
+    BIC("Байесовский критерий"),
+    // Сумма квадратов ошибок предсказания отложенных точек: скользящий контроль
+    // по одной точке (PRESS) для моделей, линейных по параметрам, и k-кратный для EXP и POWER
+    CROSS_VALIDATION("Скользящий контроль");
+
+    private final String name;
+
+    SelectionCriterion(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
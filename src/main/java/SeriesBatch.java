@@ -0,0 +1,207 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Много независимых рядов точек в общих массивах: ряд s занимает индексы
+// [offsets[s], offsets[s + 1]) в xs и ys. Все ряды подбираются одним вызовом fit,
+// параллельно по рядам; результаты пишутся в массивы, выделенные вызывающим.
+public class SeriesBatch {
+    // Коэффициенты ряда s лежат в coefficients[s·COEFFICIENT_STRIDE ...]; у функций
+    // с меньшим числом коэффициентов остаток заполняется NaN
+    public static final int COEFFICIENT_STRIDE = 4;
+    // Рядов на одну задачу: ряды маленькие, дробить мельче нет смысла
+    private static final int SERIES_PER_TASK = 256;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] offsets;
+
+    public SeriesBatch(double[] xs, double[] ys, int[] offsets) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("Длины массивов x и y не совпадают");
+        }
+        if (offsets.length == 0 || offsets[0] != 0 || offsets[offsets.length - 1] > xs.length) {
+            throw new IllegalArgumentException("Смещения рядов выходят за границы массивов");
+        }
+        for (int s = 1; s < offsets.length; s++) {
+            if (offsets[s] < offsets[s - 1]) {
+                throw new IllegalArgumentException("Смещения рядов должны не убывать");
+            }
+        }
+        this.xs = xs;
+        this.ys = ys;
+        this.offsets = offsets;
+    }
+
+    public int seriesCount() {
+        return offsets.length - 1;
+    }
+
+    public int seriesSize(int series) {
+        return offsets[series + 1] - offsets[series];
+    }
+
+    public void fit(FunctionType type, double[] coefficients, double[] r2, FunctionType[] fittedTypes) {
+        fit(ForkJoinPool.commonPool(), type, coefficients, r2, fittedTypes);
+    }
+
+    // fittedTypes может быть null; для BEST в нём выбранная функция ряда
+    // (null, если ни одна не подошла — тогда коэффициенты и R² равны NaN)
+    public void fit(ForkJoinPool pool, FunctionType type, double[] coefficients, double[] r2, FunctionType[] fittedTypes) {
+        int count = seriesCount();
+        if (coefficients.length < count * COEFFICIENT_STRIDE || r2.length < count
+                || (fittedTypes != null && fittedTypes.length < count)) {
+            throw new IllegalArgumentException("Выходные массивы меньше числа рядов");
+        }
+        FitTask task = new FitTask(type, 0, count, coefficients, r2, fittedTypes);
+        if (count <= SERIES_PER_TASK) {
+            task.invoke();
+        } else {
+            pool.invoke(task);
+        }
+    }
+
+    // Полиномы всех рядов задачи решаются одним пакетом SmallMatrix.solveBatch:
+    // сначала собираются нормальные системы, затем решаются без выделения памяти на ряд.
+    // Системы, как в FitStatistics, — по t = x − shiftX и u = y − shiftY ряда;
+    // отклонение — по той же системе: S = Σu² − 2·c·m + cᵀ·G·c
+    private void fitPolynomialRange(FunctionType type, int fromSeries, int toSeries, double[] coefficients, double[] r2,
+                                    FunctionType[] fittedTypes) {
+        int degree = type == FunctionType.LINEAR ? 1 : type == FunctionType.POLY2 ? 2 : 3;
+        int m = degree + 1;
+        int count = toSeries - fromSeries;
+        double[] gram = new double[count * m * m];
+        double[] rhs = new double[count * m];
+        double[] solution = new double[count * m];
+        double[] sumU2 = new double[count];
+        double[] totalSS = new double[count];
+        double[] shiftsX = new double[count];
+        double[] shiftsY = new double[count];
+
+        FitStatistics stats = new FitStatistics(false);
+        for (int j = 0; j < count; j++) {
+            int s = fromSeries + j;
+            stats.clear();
+            stats.addAll(xs, ys, offsets[s], offsets[s + 1]);
+            stats.polynomialSystem(degree, gram, j * m * m, rhs, j * m);
+            sumU2[j] = stats.sumU2();
+            totalSS[j] = stats.totalSumOfSquares();
+            shiftsX[j] = stats.getShiftX();
+            shiftsY[j] = stats.getShiftY();
+        }
+        SmallMatrix.solveBatch(gram, rhs, m, count, solution, new double[m * m], new double[m]);
+
+        for (int j = 0; j < count; j++) {
+            int s = fromSeries + j;
+            int base = s * COEFFICIENT_STRIDE;
+            for (int k = 0; k < COEFFICIENT_STRIDE; k++) {
+                coefficients[base + k] = Double.NaN;
+            }
+            if (fittedTypes != null) {
+                fittedTypes[s] = type;
+            }
+
+            double deviation = sumU2[j];
+            double magnitude = sumU2[j];
+            for (int i = 0; i < m; i++) {
+                double c = solution[j * m + i];
+                double term = 2 * c * rhs[j * m + i];
+                deviation -= term;
+                magnitude += Math.abs(term);
+                for (int k = 0; k < m; k++) {
+                    term = c * solution[j * m + k] * gram[j * m * m + i * m + k];
+                    deviation += term;
+                    magnitude += Math.abs(term);
+                }
+            }
+            deviation = Algorithm.reliableDeviation(deviation, magnitude);
+            if (Double.isNaN(deviation)) {
+                deviation = Algorithm.polynomialResiduals(xs, ys, offsets[s], offsets[s + 1], shiftsX[j], 1, shiftsY[j],
+                        solution, j * m, m);
+            }
+            r2[s] = 1 - deviation / totalSS[j];
+
+            PolynomialSolver.shiftBasis(solution, j * m, m, shiftsX[j]);
+            solution[j * m] += shiftsY[j];
+            // LINEAR хранится как {наклон, сдвиг}, полиномы — по возрастанию степеней
+            if (type == FunctionType.LINEAR) {
+                coefficients[base] = solution[j * m + 1];
+                coefficients[base + 1] = solution[j * m];
+            } else {
+                System.arraycopy(solution, j * m, coefficients, base, m);
+            }
+        }
+    }
+
+    // Статистики переиспользуются для всех рядов задачи
+    private void fitRange(FunctionType type, int fromSeries, int toSeries, double[] coefficients, double[] r2,
+                          FunctionType[] fittedTypes) {
+        FitStatistics stats = new FitStatistics();
+        for (int s = fromSeries; s < toSeries; s++) {
+            int from = offsets[s];
+            int to = offsets[s + 1];
+            stats.clear();
+            stats.addAll(xs, ys, from, to);
+
+            FittedModel model;
+            if (type == FunctionType.BEST) {
+                model = Algorithm.fitBest(stats, xs, ys, from, to);
+            } else if (type == FunctionType.EXP || type == FunctionType.POWER) {
+                model = FittedModel.of(type, LevenbergMarquardt.DEFAULT.fit(type, xs, ys, null, from, to, stats.coefficients(type)));
+            } else {
+                model = FittedModel.of(type, stats.coefficients(type));
+            }
+
+            int base = s * COEFFICIENT_STRIDE;
+            for (int k = 0; k < COEFFICIENT_STRIDE; k++) {
+                coefficients[base + k] = Double.NaN;
+            }
+            if (fittedTypes != null) {
+                fittedTypes[s] = model == null ? null : model.getType();
+            }
+            if (model == null) {
+                r2[s] = Double.NaN;
+                continue;
+            }
+
+            double[] c = model.getCoefficients();
+            System.arraycopy(c, 0, coefficients, base, c.length);
+            FunctionType fittedType = model.getType();
+            double deviation = stats.deviation(fittedType, c, m -> m.deviation(xs, ys, from, to));
+            r2[s] = 1 - deviation / stats.totalSumOfSquares();
+        }
+    }
+
+    private final class FitTask extends RecursiveAction {
+        private final FunctionType type;
+        private final int fromSeries;
+        private final int toSeries;
+        private final double[] coefficients;
+        private final double[] r2;
+        private final FunctionType[] fittedTypes;
+
+        FitTask(FunctionType type, int fromSeries, int toSeries, double[] coefficients, double[] r2,
+                FunctionType[] fittedTypes) {
+            this.type = type;
+            this.fromSeries = fromSeries;
+            this.toSeries = toSeries;
+            this.coefficients = coefficients;
+            this.r2 = r2;
+            this.fittedTypes = fittedTypes;
+        }
+
+        @Override
+        protected void compute() {
+            if (toSeries - fromSeries <= SERIES_PER_TASK) {
+                if (type == FunctionType.LINEAR || type == FunctionType.POLY2 || type == FunctionType.POLY3) {
+                    fitPolynomialRange(type, fromSeries, toSeries, coefficients, r2, fittedTypes);
+                } else {
+                    fitRange(type, fromSeries, toSeries, coefficients, r2, fittedTypes);
+                }
+                return;
+            }
+            int mid = fromSeries + (toSeries - fromSeries) / 2;
+            invokeAll(new FitTask(type, fromSeries, mid, coefficients, r2, fittedTypes),
+                    new FitTask(type, mid, toSeries, coefficients, r2, fittedTypes));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+// Решение малых систем (m ≤ 4–5) без выделения памяти: матрицы хранятся плоскими
+// массивами по строкам, рабочие массивы передаёт вызывающий.
+// Нормальная матрица МНК симметрична и положительно определена, поэтому вместо метода
+// Гаусса используется разложение Холецкого — вдвое меньше операций и без перестановок.
+// Перед разложением диагональ матрицы приводится к единицам (D·A·D, D = diag(1/√A_kk)):
+// столбцы Σx^k отличаются на много порядков, и без этого точность теряется раньше,
+// чем того требует сама задача.
+public class SmallMatrix {
+
+    // Разлагает D·A·D = L·Lᵀ для матрицы A = a[aOffset ...] (m×m, читается только нижний
+    // треугольник). scale[k] = 1/√A_kk, l — m×m (верхний треугольник не трогается).
+    // Возвращает число разложенных ведущих столбцов: столбец j не разлагается,
+    // если его опорный элемент не больше tolerance (у исходной диагонали он равен 1).
+    static int choleskyEquilibrated(double[] a, int aOffset, int m, double tolerance, double[] scale, double[] l) {
+        for (int k = 0; k < m; k++) {
+            double diagonal = a[aOffset + k * m + k];
+            if (!(diagonal > 0)) return 0;
+            scale[k] = 1 / Math.sqrt(diagonal);
+        }
+        for (int j = 0; j < m; j++) {
+            double pivot = 1;
+            for (int k = 0; k < j; k++) {
+                pivot -= l[j * m + k] * l[j * m + k];
+            }
+            if (!(pivot > tolerance)) return j;
+            double ljj = Math.sqrt(pivot);
+            l[j * m + j] = ljj;
+            for (int i = j + 1; i < m; i++) {
+                double value = a[aOffset + i * m + j] * scale[i] * scale[j];
+                for (int k = 0; k < j; k++) {
+                    value -= l[i * m + k] * l[j * m + k];
+                }
+                l[i * m + j] = value / ljj;
+            }
+        }
+        return m;
+    }
+
+    // A·x = b по разложению choleskyEquilibrated, b = b[bOffset ...], x = x[xOffset ...];
+    // x может совпадать с b
+    static void choleskySolve(double[] l, double[] scale, int m, double[] b, int bOffset, double[] x, int xOffset) {
+        for (int i = 0; i < m; i++) {
+            double value = b[bOffset + i] * scale[i];
+            for (int k = 0; k < i; k++) {
+                value -= l[i * m + k] * x[xOffset + k];
+            }
+            x[xOffset + i] = value / l[i * m + i];
+        }
+        for (int i = m - 1; i >= 0; i--) {
+            double value = x[xOffset + i];
+            for (int k = i + 1; k < m; k++) {
+                value -= l[k * m + i] * x[xOffset + k];
+            }
+            x[xOffset + i] = value / l[i * m + i];
+        }
+        for (int i = 0; i < m; i++) {
+            x[xOffset + i] *= scale[i];
+        }
+    }
+
+    // Число обусловленности ‖Ã‖₁·‖Ã⁻¹‖₁ приведённой матрицы Ã = L·Lᵀ; обратная
+    // считается по столбцам, work — m элементов
+    static double choleskyCondition(double[] l, int m, double[] work) {
+        double norm = 0;
+        double inverseNorm = 0;
+        for (int j = 0; j < m; j++) {
+            double column = 0;
+            for (int i = 0; i < m; i++) {
+                double value = 0;
+                for (int k = 0; k <= Math.min(i, j); k++) {
+                    value += l[i * m + k] * l[j * m + k];
+                }
+                column += Math.abs(value);
+            }
+            norm = Math.max(norm, column);
+
+            // Ã·v = e_j
+            for (int i = 0; i < m; i++) {
+                double value = i == j ? 1 : 0;
+                for (int k = 0; k < i; k++) {
+                    value -= l[i * m + k] * work[k];
+                }
+                work[i] = value / l[i * m + i];
+            }
+            for (int i = m - 1; i >= 0; i--) {
+                double value = work[i];
+                for (int k = i + 1; k < m; k++) {
+                    value -= l[k * m + i] * work[k];
+                }
+                work[i] = value / l[i * m + i];
+            }
+            double inverseColumn = 0;
+            for (int i = 0; i < m; i++) {
+                inverseColumn += Math.abs(work[i]);
+            }
+            inverseNorm = Math.max(inverseNorm, inverseColumn);
+        }
+        return norm * inverseNorm;
+    }
+
+    // Разложение D·A·D = L·diag(d)·Lᵀ без корней (L с единичной диагональю, d — на её месте
+    // в l). В отличие от LLᵀ не ломается, когда ошибки округления в почти вырожденной
+    // матрице дают отрицательный опорный элемент: как и метод Гаусса, даёт решение,
+    // пусть и неточное. false — только при нулевом опорном элементе.
+    static boolean ldltEquilibrated(double[] a, int aOffset, int m, double[] scale, double[] l) {
+        for (int k = 0; k < m; k++) {
+            double diagonal = a[aOffset + k * m + k];
+            if (!(diagonal > 0)) return false;
+            scale[k] = 1 / Math.sqrt(diagonal);
+        }
+        for (int j = 0; j < m; j++) {
+            double pivot = 1;
+            for (int k = 0; k < j; k++) {
+                pivot -= l[j * m + k] * l[j * m + k] * l[k * m + k];
+            }
+            if (pivot == 0 || Double.isNaN(pivot)) return false;
+            l[j * m + j] = pivot;
+            for (int i = j + 1; i < m; i++) {
+                double value = a[aOffset + i * m + j] * scale[i] * scale[j];
+                for (int k = 0; k < j; k++) {
+                    value -= l[i * m + k] * l[j * m + k] * l[k * m + k];
+                }
+                l[i * m + j] = value / pivot;
+            }
+        }
+        return true;
+    }
+
+    static void ldltSolve(double[] l, double[] scale, int m, double[] b, int bOffset, double[] x, int xOffset) {
+        for (int i = 0; i < m; i++) {
+            double value = b[bOffset + i] * scale[i];
+            for (int k = 0; k < i; k++) {
+                value -= l[i * m + k] * x[xOffset + k];
+            }
+            x[xOffset + i] = value;
+        }
+        for (int i = 0; i < m; i++) {
+            x[xOffset + i] /= l[i * m + i];
+        }
+        for (int i = m - 1; i >= 0; i--) {
+            double value = x[xOffset + i];
+            for (int k = i + 1; k < m; k++) {
+                value -= l[k * m + i] * x[xOffset + k];
+            }
+            x[xOffset + i] = value;
+        }
+        for (int i = 0; i < m; i++) {
+            x[xOffset + i] *= scale[i];
+        }
+    }
+
+    // count систем A_j·x_j = b_j: A_j = a[j·m² ...], b_j = b[j·m ...], x_j = x[j·m ...].
+    // l (m²) и scale (m) — рабочие массивы. Используется LDLᵀ; решение вырожденной
+    // системы заполняется NaN. Возвращает число вырожденных систем.
+    public static int solveBatch(double[] a, double[] b, int m, int count, double[] x, double[] l, double[] scale) {
+        int failures = 0;
+        for (int j = 0; j < count; j++) {
+            if (ldltEquilibrated(a, j * m * m, m, scale, l)) {
+                ldltSolve(l, scale, m, b, j * m, x, j * m);
+            } else {
+                for (int i = 0; i < m; i++) {
+                    x[j * m + i] = Double.NaN;
+                }
+                failures++;
+            }
+        }
+        return failures;
+    }
+}
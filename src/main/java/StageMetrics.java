@@ -0,0 +1,238 @@
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Время выполнения этапов расчёта: число замеров и гистограмма задержек по каждому этапу.
+// Замер — пара start()/stop(); при выключенном сборе start() не читает часы и возвращает 0,
+// а stop() сразу выходит, так что остаётся только чтение volatile-флага.
+// Сбор выключается свойством -Dlab4.metrics=false или через JMX.
+public final class StageMetrics implements StageMetricsMXBean {
+    public static final String OBJECT_NAME = "lab4:type=StageMetrics";
+
+    public enum Stage {
+        PARSE("Разбор ввода"),
+        LOAD("Загрузка файла"),
+        FIT("Подбор коэффициентов"),
+        STATISTICS("R², отклонение, Пирсон"),
+        CONSOLE("Вывод в консоль"),
+        PLOT("Обновление графика"),
+        TOTAL("Расчёт целиком"),
+        REQUEST("HTTP-запрос");
+
+        private final String name;
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static final StageMetrics INSTANCE = new StageMetrics();
+    private static volatile boolean enabled = !"false".equals(System.getProperty("lab4.metrics"));
+
+    private final Histogram[] histograms = new Histogram[Stage.values().length];
+
+    private StageMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new Histogram();
+        }
+    }
+
+    public static StageMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public static void stop(Stage stage, long start) {
+        if (start == 0) return;
+        INSTANCE.histograms[stage.ordinal()].record(System.nanoTime() - start);
+    }
+
+    // Повторная регистрация (например, второе окно в той же JVM) не считается ошибкой
+    public static void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // уже зарегистрирован
+        } catch (JMException e) {
+            throw new IllegalStateException("Не удалось зарегистрировать MBean " + OBJECT_NAME, e);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    @Override
+    public List<StageSnapshot> getStages() {
+        List<StageSnapshot> stages = new ArrayList<>();
+        for (Stage stage : Stage.values()) {
+            stages.add(histograms[stage.ordinal()].snapshot(stage));
+        }
+        return stages;
+    }
+
+    @Override
+    public String getSummary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(enabled ? "Замеры времени (мс):" : "Замеры времени выключены; накоплено (мс):");
+        for (StageSnapshot s : getStages()) {
+            if (s.getCount() == 0) continue;
+            sb.append('\n').append(String.format(Locale.ROOT,
+                    "%s: n=%d, среднее %.3f, p50 %.3f, p90 %.3f, p99 %.3f, макс %.3f",
+                    s.getStage(), s.getCount(), s.getMeanMillis(), s.getP50Millis(),
+                    s.getP90Millis(), s.getP99Millis(), s.getMaxMillis()));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (Histogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    // Снимок этапа; через JMX виден как CompositeData
+    public static final class StageSnapshot {
+        private final String stage;
+        private final long count;
+        private final double meanMillis;
+        private final double p50Millis;
+        private final double p90Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+
+        StageSnapshot(String stage, long count, double meanMillis, double p50Millis, double p90Millis,
+                      double p99Millis, double maxMillis) {
+            this.stage = stage;
+            this.count = count;
+            this.meanMillis = meanMillis;
+            this.p50Millis = p50Millis;
+            this.p90Millis = p90Millis;
+            this.p99Millis = p99Millis;
+            this.maxMillis = maxMillis;
+        }
+
+        public String getStage() {
+            return stage;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMeanMillis() {
+            return meanMillis;
+        }
+
+        public double getP50Millis() {
+            return p50Millis;
+        }
+
+        public double getP90Millis() {
+            return p90Millis;
+        }
+
+        public double getP99Millis() {
+            return p99Millis;
+        }
+
+        public double getMaxMillis() {
+            return maxMillis;
+        }
+    }
+
+    // Логарифмическая гистограмма: каждая степень двойки наносекунд делится на 4 корзины,
+    // так что перцентиль определяется с относительной ошибкой не больше 12.5%.
+    // Запись без блокировок, снимок может не совпасть с одновременными записями.
+    private static final class Histogram {
+        private static final int SUB_BUCKETS = 4;
+        private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long nanos) {
+            if (nanos < 0) nanos = 0;
+            buckets.incrementAndGet(index(nanos));
+            count.increment();
+            sum.add(nanos);
+            max.accumulateAndGet(nanos, Math::max);
+        }
+
+        private static int index(long v) {
+            if (v < SUB_BUCKETS) return (int) v;
+            int exponent = 63 - Long.numberOfLeadingZeros(v);
+            int sub = (int) (v >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+            return (exponent - 1) * SUB_BUCKETS + sub;
+        }
+
+        // Середина корзины
+        private static double value(int index) {
+            if (index < SUB_BUCKETS) return index;
+            int exponent = index / SUB_BUCKETS + 1;
+            int sub = index % SUB_BUCKETS;
+            double width = Math.scalb(1.0, exponent - 2);
+            return (SUB_BUCKETS + sub) * width + width / 2;
+        }
+
+        StageSnapshot snapshot(Stage stage) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            double maxNanos = max.get();
+            long n = count.sum();
+            double mean = n == 0 ? 0 : (double) sum.sum() / n;
+            return new StageSnapshot(stage.getName(), n, mean / 1e6,
+                    Math.min(percentile(counts, total, 0.50), maxNanos) / 1e6,
+                    Math.min(percentile(counts, total, 0.90), maxNanos) / 1e6,
+                    Math.min(percentile(counts, total, 0.99), maxNanos) / 1e6,
+                    maxNanos / 1e6);
+        }
+
+        private static double percentile(long[] counts, long total, double p) {
+            if (total == 0) return 0;
+            long rank = (long) Math.ceil(p * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return value(i);
+            }
+            return value(counts.length - 1);
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            count.reset();
+            sum.reset();
+            max.set(0);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+import java.util.List;
+
+// Атрибуты StageMetrics, доступные через JMX (jconsole, VisualVM)
+public interface StageMetricsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    List<StageMetrics.StageSnapshot> getStages();
+
+    String getSummary();
+
+    void reset();
+}
@@ -0,0 +1,241 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// Чтение точек из непрерывного потока (stdin, именованный канал, tail -f) с подбором
+// функции по скользящему окну. Поток читает и разбирает отдельный поток-читатель;
+// подбор и уведомление слушателя выполняются по таймеру не чаще раза в REFRESH_PERIOD_MS,
+// как бы быстро ни поступали данные.
+// Между обновлениями точки копятся в кольцевом буфере размера окна. Если он заполнился,
+// самые старые точки вытесняются: из окна они всё равно выпали бы раньше, чем попали
+// бы в подбор, так что результат от этого не меняется, а память не растёт.
+public class StreamIngestor {
+    public static final int DEFAULT_WINDOW = 10_000;
+    // ~30 обновлений в секунду
+    public static final long REFRESH_PERIOD_MS = 33;
+
+    private static final Pattern SEPARATOR = Pattern.compile("[\\s,]+");
+
+    // Вызывается в потоке таймера
+    public interface Listener {
+        void onUpdate(Update update);
+
+        // error == null — поток закончился штатно
+        void onFinished(IOException error);
+    }
+
+    private interface Source {
+        InputStream open() throws IOException;
+    }
+
+    // Состояние на момент обновления. result == null, если по точкам окна функцию
+    // подобрать не удалось (например, точек пока слишком мало).
+    public static final class Update {
+        private final PointSet window;
+        private final FitResult result;
+        private final long received;
+        private final long dropped;
+        private final long skipped;
+
+        Update(PointSet window, FitResult result, long received, long dropped, long skipped) {
+            this.window = window;
+            this.result = result;
+            this.received = received;
+            this.dropped = dropped;
+            this.skipped = skipped;
+        }
+
+        public PointSet getWindow() {
+            return window;
+        }
+
+        public FitResult getResult() {
+            return result;
+        }
+
+        // Всего прочитано точек
+        public long getReceived() {
+            return received;
+        }
+
+        // Точек, вытесненных из буфера до того, как попали в окно
+        public long getDropped() {
+            return dropped;
+        }
+
+        // Строк, которые не удалось разобрать
+        public long getSkipped() {
+            return skipped;
+        }
+    }
+
+    private final IncrementalFitter fitter;
+    private final Listener listener;
+
+    // Буфер между читателем и таймером; защищён lock
+    private final Object lock = new Object();
+    private final double[] pendingX;
+    private final double[] pendingY;
+    private int pendingHead;
+    private int pendingSize;
+    private long received;
+    private long dropped;
+    private long skipped;
+    private boolean ended;
+    private IOException error;
+
+    // Принадлежат потоку таймера
+    private final double[] drainX;
+    private final double[] drainY;
+    private long deliveredReceived = -1;
+
+    private Thread reader;
+    private ScheduledExecutorService timer;
+
+    public StreamIngestor(FunctionType type, int window, Listener listener) {
+        this.fitter = new IncrementalFitter(type, window);
+        this.listener = listener;
+        this.pendingX = new double[window];
+        this.pendingY = new double[window];
+        this.drainX = new double[window];
+        this.drainY = new double[window];
+    }
+
+    public void start(InputStream in) {
+        start(() -> in);
+    }
+
+    // Файл открывается в потоке-читателе: открытие именованного канала
+    // блокируется до появления пишущей стороны
+    public void start(Path path) {
+        start(() -> Files.newInputStream(path));
+    }
+
+    private synchronized void start(Source source) {
+        if (reader != null) {
+            throw new IllegalStateException("Чтение потока уже запущено");
+        }
+        reader = new Thread(() -> read(source), "stream-reader");
+        reader.setDaemon(true);
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stream-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reader.start();
+        // С фиксированной задержкой: если подбор дольше периода, обновления не копятся
+        timer.scheduleWithFixedDelay(this::refresh, 0, REFRESH_PERIOD_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Останавливает таймер; читатель, заблокированный на чтении, завершится вместе с JVM
+    public synchronized void stop() {
+        if (reader == null) return;
+        timer.shutdownNow();
+        reader.interrupt();
+    }
+
+    private void read(Source source) {
+        IOException failure = null;
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(source.open(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = lines.readLine()) != null && !Thread.currentThread().isInterrupted()) {
+                accept(line);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+        synchronized (lock) {
+            ended = true;
+            error = failure;
+        }
+    }
+
+    // Строка — пара "x y", разделённая пробельными символами или запятой.
+    // Пустые строки пропускаются молча, неразобранные — учитываются в skipped.
+    private void accept(String line) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty()) return;
+        String[] tokens = SEPARATOR.split(trimmed);
+        double x;
+        double y;
+        try {
+            if (tokens.length != 2) throw new NumberFormatException();
+            x = Double.parseDouble(tokens[0]);
+            y = Double.parseDouble(tokens[1]);
+        } catch (NumberFormatException e) {
+            synchronized (lock) {
+                skipped++;
+            }
+            return;
+        }
+
+        synchronized (lock) {
+            int capacity = pendingX.length;
+            int tail = (pendingHead + pendingSize) % capacity;
+            pendingX[tail] = x;
+            pendingY[tail] = y;
+            if (pendingSize == capacity) {
+                pendingHead = (pendingHead + 1) % capacity;
+                dropped++;
+            } else {
+                pendingSize++;
+            }
+            received++;
+        }
+    }
+
+    private void refresh() {
+        int count;
+        long receivedNow;
+        long droppedNow;
+        long skippedNow;
+        boolean endedNow;
+        IOException errorNow;
+        synchronized (lock) {
+            count = pendingSize;
+            int capacity = pendingX.length;
+            int first = Math.min(count, capacity - pendingHead);
+            System.arraycopy(pendingX, pendingHead, drainX, 0, first);
+            System.arraycopy(pendingY, pendingHead, drainY, 0, first);
+            System.arraycopy(pendingX, 0, drainX, first, count - first);
+            System.arraycopy(pendingY, 0, drainY, first, count - first);
+            pendingHead = 0;
+            pendingSize = 0;
+            receivedNow = received;
+            droppedNow = dropped;
+            skippedNow = skipped;
+            endedNow = ended;
+            errorNow = error;
+        }
+
+        for (int i = 0; i < count; i++) {
+            fitter.add(drainX[i], drainY[i]);
+        }
+        if (receivedNow != deliveredReceived) {
+            deliveredReceived = receivedNow;
+            listener.onUpdate(new Update(fitter.copyWindow(), fit(), receivedNow, droppedNow, skippedNow));
+        }
+        if (endedNow) {
+            listener.onFinished(errorNow);
+            timer.shutdown();
+        }
+    }
+
+    private FitResult fit() {
+        if (fitter.size() == 0) return null;
+        try {
+            FitResult result = fitter.getResult();
+            return Double.isFinite(result.getR2()) ? result : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+// МНК по QR-разложению матрицы плана отражениями Хаусхолдера, без хранения всей матрицы:
+// строки [φ(t) | y] копятся блоками по BLOCK_ROWS под текущим треугольником R̃
+// (m + 1)×(m + 1), и каждый заполненный блок сворачивается в новый R̃ одним разложением.
+// Столбец y входит в разложение, поэтому в R̃ сразу лежат R, Qᵀy и
+// |R̃[m][m]| = ‖y − A·c‖ — остаток без отдельного прохода.
+// Число обусловленности R равно числу обусловленности самой матрицы плана, а не его
+// квадрату, как у нормальных уравнений.
+public class StreamingQR {
+    private static final int BLOCK_ROWS = 256;
+
+    private final int m;
+    private final int columns;
+    // Строки по columns элементов: первые columns строк — R̃, дальше — накопленный блок
+    private final double[] rows;
+    private final double[] reflector;
+    private int pending;
+    private long count;
+
+    // m — число базисных функций (для полинома степени d — d + 1)
+    public StreamingQR(int m) {
+        if (m < 1) {
+            throw new IllegalArgumentException("Число неизвестных должно быть положительным");
+        }
+        this.m = m;
+        this.columns = m + 1;
+        this.rows = new double[(columns + BLOCK_ROWS) * columns];
+        this.reflector = new double[columns + BLOCK_ROWS];
+    }
+
+    // Строка плана 1, t, t², … для полинома
+    public void addPolynomial(double t, double y) {
+        addPolynomial(t, y, 1);
+    }
+
+    // Строка взвешенного МНК: умножается на √weight, так что минимизируется Σw·r²
+    public void addPolynomial(double t, double y, double weight) {
+        int offset = (columns + pending) * columns;
+        double root = Math.sqrt(weight);
+        double power = root;
+        for (int k = 0; k < m; k++) {
+            rows[offset + k] = power;
+            power *= t;
+        }
+        rows[offset + m] = root * y;
+        commitRow();
+    }
+
+    // phi — m значений базисных функций в точке
+    public void add(double[] phi, double y) {
+        int offset = (columns + pending) * columns;
+        System.arraycopy(phi, 0, rows, offset, m);
+        rows[offset + m] = y;
+        commitRow();
+    }
+
+    private void commitRow() {
+        pending++;
+        count++;
+        if (pending == BLOCK_ROWS) {
+            reduce();
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    // Коэффициенты в out (m элементов); при вырожденном R — NaN. Возвращает ранг R
+    public int solve(double[] out) {
+        reduce();
+        int rank = rank();
+        if (rank < m) {
+            for (int k = 0; k < m; k++) {
+                out[k] = Double.NaN;
+            }
+            return rank;
+        }
+        for (int i = m - 1; i >= 0; i--) {
+            double value = rows[i * columns + m];
+            for (int k = i + 1; k < m; k++) {
+                value -= rows[i * columns + k] * out[k];
+            }
+            out[i] = value / rows[i * columns + i];
+        }
+        return m;
+    }
+
+    // Сумма квадратов остатков решения
+    public double residualSumOfSquares() {
+        reduce();
+        double r = rows[m * columns + m];
+        return r * r;
+    }
+
+    // ‖R‖₁·‖R⁻¹‖₁; бесконечность для вырожденного R
+    public double conditionNumber() {
+        reduce();
+        if (rank() < m) return Double.POSITIVE_INFINITY;
+        double norm = 0;
+        for (int j = 0; j < m; j++) {
+            double column = 0;
+            for (int i = 0; i <= j; i++) {
+                column += Math.abs(rows[i * columns + j]);
+            }
+            norm = Math.max(norm, column);
+        }
+        // Столбцы R⁻¹: R·v = e_j, v — в reflector
+        double inverseNorm = 0;
+        for (int j = 0; j < m; j++) {
+            double column = 0;
+            for (int i = m - 1; i >= 0; i--) {
+                double value = i == j ? 1 : 0;
+                for (int k = i + 1; k < m; k++) {
+                    value -= rows[i * columns + k] * reflector[k];
+                }
+                reflector[i] = i > j ? 0 : value / rows[i * columns + i];
+                column += Math.abs(reflector[i]);
+            }
+            inverseNorm = Math.max(inverseNorm, column);
+        }
+        return norm * inverseNorm;
+    }
+
+    // Диагональ R, отличающаяся от максимальной меньше чем в 1e-14 раз, считается нулевой
+    private int rank() {
+        double max = 0;
+        for (int i = 0; i < m; i++) {
+            max = Math.max(max, Math.abs(rows[i * columns + i]));
+        }
+        for (int i = 0; i < m; i++) {
+            if (!(Math.abs(rows[i * columns + i]) > 1e-14 * max)) return i;
+        }
+        return m;
+    }
+
+    // Разложение [R̃; блок] = Q·R̃' по столбцам; ниже диагонали остаются нули
+    private void reduce() {
+        if (pending == 0) return;
+        int height = columns + pending;
+        for (int j = 0; j < columns; j++) {
+            double norm = 0;
+            for (int i = j; i < height; i++) {
+                double value = rows[i * columns + j];
+                reflector[i] = value;
+                norm += value * value;
+            }
+            norm = Math.sqrt(norm);
+            if (norm == 0) continue;
+            double alpha = reflector[j] > 0 ? -norm : norm;
+            reflector[j] -= alpha;
+            double beta = norm * norm - alpha * rows[j * columns + j];
+
+            for (int c = j + 1; c < columns; c++) {
+                double dot = 0;
+                for (int i = j; i < height; i++) {
+                    dot += reflector[i] * rows[i * columns + c];
+                }
+                double factor = dot / beta;
+                for (int i = j; i < height; i++) {
+                    rows[i * columns + c] -= factor * reflector[i];
+                }
+            }
+            rows[j * columns + j] = alpha;
+            for (int i = j + 1; i < height; i++) {
+                rows[i * columns + j] = 0;
+            }
+        }
+        pending = 0;
+    }
+}
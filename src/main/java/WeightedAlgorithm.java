@@ -0,0 +1,374 @@
+import java.util.Arrays;
+
+// Взвешенный МНК (минимизируется Σw·r²) и устойчивая регрессия методом IRLS для всех
+// типов функций. Коэффициенты в том же порядке, что и у Algorithm.approximate.
+// LINEAR, POLY2, POLY3 и LOG линейны по параметрам: это полином от t = x или t = ln x,
+// поэтому для них решается взвешенная задача тем же центрированным PolynomialSolver,
+// что и без весов: при единичных весах результат совпадает с обычной аппроксимацией.
+// EXP и POWER решаются взвешенным методом Левенберга — Марквардта.
+public class WeightedAlgorithm {
+    public static final int DEFAULT_MAX_ITERATIONS = 50;
+    // Итерации IRLS прекращаются, когда ни один вес не изменился больше чем на эту величину
+    public static final double DEFAULT_TOLERANCE = 1e-6;
+
+    // Медиана модулей остатков, делённая на 0.6745, — устойчивая оценка σ нормального шума
+    private static final double MAD_TO_SIGMA = 0.6745;
+
+    public static double[] approximate(FunctionType type, PointSet points, double[] weights) {
+        checkWeights(points, weights, false);
+        if (type == FunctionType.BEST) {
+            return bestWeighted(points, weights).getCoefficients();
+        }
+        return weightedFit(type, points, weights);
+    }
+
+    // weights — исходные веса точек, null — все равны 1. Итоговый вес точки —
+    // произведение исходного на вес функции потерь.
+    public static double[] approximateRobust(FunctionType type, PointSet points, double[] weights, RobustLoss loss) {
+        return approximateRobust(type, points, weights, loss, DEFAULT_MAX_ITERATIONS, DEFAULT_TOLERANCE);
+    }
+
+    public static double[] approximateRobust(FunctionType type, PointSet points, double[] weights, RobustLoss loss,
+                                             int maxIterations, double tolerance) {
+        checkWeights(points, weights, true);
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("Число итераций должно быть положительным");
+        }
+        if (type == FunctionType.BEST) {
+            return bestRobust(points, weights, loss, maxIterations, tolerance).getCoefficients();
+        }
+        return robustFit(type, points, weights, loss, maxIterations, tolerance);
+    }
+
+    // Сумма w·r² по всем точкам; weights == null — все веса равны 1
+    public static double weightedDeviation(FittedModel model, PointSet points, double[] weights) {
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        double S = 0;
+        for (int i = 0; i < points.size(); i++) {
+            double w = weights == null ? 1 : weights[i];
+            double d = ys[i] - model.evaluate(xs[i]);
+            S += w * d * d;
+        }
+        return S;
+    }
+
+    private static double[] weightedFit(FunctionType type, PointSet points, double[] weights) {
+        if (type == FunctionType.EXP || type == FunctionType.POWER) {
+            return LevenbergMarquardt.DEFAULT.fit(type, points, weights, logLinearStart(type, points, weights));
+        }
+        double[] c = linearFamilyFit(type, points.getXs(), points.getYs(), weights, points.size());
+        return toCoefficients(type, c);
+    }
+
+    private static double[] robustFit(FunctionType type, PointSet points, double[] weights, RobustLoss loss,
+                                      int maxIterations, double tolerance) {
+        if (type == FunctionType.EXP || type == FunctionType.POWER) {
+            return robustNonlinearFit(type, points, weights, loss, maxIterations, tolerance);
+        }
+
+        int degree = degree(type);
+        int m = degree + 1;
+        Design design = Design.of(type, points.getXs(), points.getYs(), weights, points.size());
+
+        // Решение всех итераций — по степеням τ = (t − shift)/halfWidth одного дизайна:
+        // отрезок центрирования ищется один раз, в базис x переводится только ответ
+        double[] powerSums = new double[2 * degree + 1];
+        double[] momentSums = new double[m];
+        double[] c = new double[m];
+        Algorithm.accumulatePowerSums(design.ts, design.ys, design.weights, 0, design.size,
+                design.shift, design.halfWidth, 0, powerSums, momentSums);
+        PolynomialSolver.solveNormal(powerSums, momentSums, m, c);
+        // Разброс оценивается один раз по остаткам начального решения и дальше не меняется
+        double scale = residualScale(type, FittedModel.of(type, design.toCoefficients(type, c)), points, weights);
+        if (!(scale > 0)) {
+            return design.toCoefficients(type, c);
+        }
+
+        double[] robustWeights = new double[design.size];
+        Arrays.fill(robustWeights, 1);
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            double maxChange = design.reweight(c, scale, loss, robustWeights, powerSums, momentSums);
+            PolynomialSolver.solveNormal(powerSums, momentSums, m, c);
+            if (maxChange < tolerance) break;
+        }
+        return design.toCoefficients(type, c);
+    }
+
+    // Для EXP и POWER после каждого пересчёта весов взвешенная задача решается методом
+    // Левенберга — Марквардта от предыдущих коэффициентов: обычно хватает пары проходов
+    private static double[] robustNonlinearFit(FunctionType type, PointSet points, double[] weights, RobustLoss loss,
+                                               int maxIterations, double tolerance) {
+        int n = points.size();
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+
+        double[] c = weightedFit(type, points, weights);
+        double scale = residualScale(type, FittedModel.of(type, c), points, weights);
+        if (!(scale > 0)) {
+            return c;
+        }
+
+        double[] robustWeights = new double[n];
+        Arrays.fill(robustWeights, 1);
+        double[] combined = new double[n];
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            FittedModel model = FittedModel.of(type, c);
+            double maxChange = 0;
+            for (int i = 0; i < n; i++) {
+                double w = loss.weight((ys[i] - model.evaluate(xs[i])) / scale);
+                if (Double.isNaN(w)) w = 0;
+                maxChange = Math.max(maxChange, Math.abs(w - robustWeights[i]));
+                robustWeights[i] = w;
+                combined[i] = weights == null ? w : w * weights[i];
+            }
+            c = LevenbergMarquardt.DEFAULT.fit(type, points, combined, c);
+            if (maxChange < tolerance) break;
+        }
+        return c;
+    }
+
+    // Выбор по наименьшей взвешенной сумме квадратов
+    private static FittedModel bestWeighted(PointSet points, double[] weights) {
+        FittedModel best = null;
+        double minDeviation = Double.MAX_VALUE;
+        for (FunctionType type : FunctionType.values()) {
+            if (type == FunctionType.BEST) continue;
+            FittedModel model = FittedModel.of(type, weightedFit(type, points, weights));
+            double deviation = weightedDeviation(model, points, weights);
+            if (deviation < minDeviation) {
+                minDeviation = deviation;
+                best = model;
+            }
+        }
+        if (best == null) {
+            throw new IllegalStateException("Не удалось подобрать функцию");
+        }
+        return best;
+    }
+
+    // Сумма квадратов сравнивать нельзя: выбросы у разных моделей получают разные веса.
+    // Модели сравниваются по медиане модулей остатков, которая от выбросов не зависит.
+    private static FittedModel bestRobust(PointSet points, double[] weights, RobustLoss loss,
+                                          int maxIterations, double tolerance) {
+        FittedModel best = null;
+        double minScale = Double.MAX_VALUE;
+        for (FunctionType type : FunctionType.values()) {
+            if (type == FunctionType.BEST) continue;
+            FittedModel model = FittedModel.of(type, robustFit(type, points, weights, loss, maxIterations, tolerance));
+            double scale = residualScale(type, model, points, weights);
+            if (scale < minScale) {
+                minScale = scale;
+                best = model;
+            }
+        }
+        if (best == null) {
+            throw new IllegalStateException("Не удалось подобрать функцию");
+        }
+        return best;
+    }
+
+    // Коэффициенты полинома от t по возрастанию степеней; для LOG берутся точки с x > 0
+    private static double[] linearFamilyFit(FunctionType type, double[] xs, double[] ys, double[] weights, int n) {
+        Design design = Design.of(type, xs, ys, weights, n);
+        return design.fit(design.weights, degree(type));
+    }
+
+    // Взвешенная прямая в логарифмах по точкам, где они определены: ln y = ln a + b·t
+    private static double[] logLinearStart(FunctionType type, PointSet points, double[] weights) {
+        Design design = Design.ofLogY(type, points.getXs(), points.getYs(), weights, points.size());
+        double[] c = design.fit(design.weights, 1);
+        return new double[]{Math.exp(c[0]), c[1]};
+    }
+
+    // Точки задачи, линейной по параметрам: аргумент полинома t (x или ln x), значения
+    // и исходные веса. Точки, где t или ln y не определены, отбрасываются сразу, чтобы
+    // не влиять и на отрезок центрирования PolynomialSolver; сам отрезок находится один
+    // раз на дизайн.
+    private static final class Design {
+        final double[] ts;
+        final double[] ys;
+        final double[] weights;
+        final int size;
+        final double shift;
+        final double halfWidth;
+
+        private Design(double[] ts, double[] ys, double[] weights, int size) {
+            this.ts = ts;
+            this.ys = ys;
+            this.weights = weights;
+            this.size = size;
+            double[] centering = PolynomialSolver.centering(ts, 0, size);
+            this.shift = centering[0];
+            this.halfWidth = centering[1];
+        }
+
+        static Design of(FunctionType type, double[] xs, double[] ys, double[] weights, int n) {
+            if (type != FunctionType.LOG) {
+                return new Design(xs, ys, weights, n);
+            }
+            double[] ts = new double[n];
+            double[] values = new double[n];
+            double[] kept = weights == null ? null : new double[n];
+            int size = 0;
+            for (int i = 0; i < n; i++) {
+                if (xs[i] <= 0) continue;
+                ts[size] = Math.log(xs[i]);
+                values[size] = ys[i];
+                if (kept != null) kept[size] = weights[i];
+                size++;
+            }
+            return new Design(ts, values, kept, size);
+        }
+
+        // ln y по x (EXP) или по ln x (POWER)
+        static Design ofLogY(FunctionType type, double[] xs, double[] ys, double[] weights, int n) {
+            boolean logX = type == FunctionType.POWER;
+            double[] ts = new double[n];
+            double[] values = new double[n];
+            double[] kept = weights == null ? null : new double[n];
+            int size = 0;
+            for (int i = 0; i < n; i++) {
+                if (ys[i] <= 0 || (logX && xs[i] <= 0)) continue;
+                ts[size] = logX ? Math.log(xs[i]) : xs[i];
+                values[size] = Math.log(ys[i]);
+                if (kept != null) kept[size] = weights[i];
+                size++;
+            }
+            return new Design(ts, values, kept, size);
+        }
+
+        // w — веса точек дизайна, null — все равны 1
+        double[] fit(double[] w, int degree) {
+            return PolynomialSolver.DEFAULT.fit(ts, ys, w, 0, size, degree, shift, halfWidth).getCoefficients();
+        }
+
+        // Итерация IRLS за один проход: остаток решения c (по степеням τ) даёт новый вес
+        // точки, и тем же проходом копятся взвешенные суммы Σw·τ^k и Σw·τ^k·y, как в
+        // Algorithm.accumulatePowerSums, для следующего решения. Возвращает наибольшее
+        // изменение веса.
+        double reweight(double[] c, double scale, RobustLoss loss, double[] robustWeights,
+                        double[] powerSums, double[] momentSums) {
+            Arrays.fill(powerSums, 0);
+            Arrays.fill(momentSums, 0);
+            int maxMoment = momentSums.length;
+            double maxChange = 0;
+            for (int i = 0; i < size; i++) {
+                double tau = (ts[i] - shift) / halfWidth;
+                double y = ys[i];
+                double w = loss.weight((y - evaluate(c, tau)) / scale);
+                maxChange = Math.max(maxChange, Math.abs(w - robustWeights[i]));
+                robustWeights[i] = w;
+
+                double power = weights == null ? w : w * weights[i];
+                for (int k = 0; k < maxMoment; k++) {
+                    powerSums[k] += power;
+                    momentSums[k] += power * y;
+                    power *= tau;
+                }
+                for (int k = maxMoment; k < powerSums.length; k++) {
+                    powerSums[k] += power;
+                    power *= tau;
+                }
+            }
+            return maxChange;
+        }
+
+        // Решение по степеням τ → коэффициенты функции в порядке Algorithm.approximate
+        double[] toCoefficients(FunctionType type, double[] c) {
+            return WeightedAlgorithm.toCoefficients(type, PolynomialSolver.toPowerBasis(c, shift, halfWidth));
+        }
+    }
+
+    // Схема Горнера, коэффициенты по возрастанию степеней
+    private static double evaluate(double[] c, double t) {
+        double y = c[c.length - 1];
+        for (int k = c.length - 2; k >= 0; k--) {
+            y = y * t + c[k];
+        }
+        return y;
+    }
+
+    private static int degree(FunctionType type) {
+        switch (type) {
+            case LINEAR:
+            case LOG:
+                return 1;
+            case POLY2:
+                return 2;
+            case POLY3:
+                return 3;
+            default:
+                throw new IllegalArgumentException("Неизвестный тип функции");
+        }
+    }
+
+    // LINEAR хранит коэффициенты как [a, b] для a·x + b
+    private static double[] toCoefficients(FunctionType type, double[] c) {
+        if (type == FunctionType.LINEAR) {
+            return new double[]{c[1], c[0]};
+        }
+        return c;
+    }
+
+    // Медиана модулей остатков точек с ненулевым весом, приведённая к σ; NaN, если таких точек нет
+    private static double residualScale(FunctionType type, FittedModel model, PointSet points, double[] weights) {
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        boolean positiveX = type == FunctionType.LOG || type == FunctionType.POWER;
+        double[] residuals = new double[points.size()];
+        int m = 0;
+        for (int i = 0; i < points.size(); i++) {
+            if (weights != null && weights[i] == 0) continue;
+            if (positiveX && xs[i] <= 0) continue;
+            double r = Math.abs(ys[i] - model.evaluate(xs[i]));
+            if (Double.isNaN(r)) continue;
+            residuals[m++] = r;
+        }
+        if (m == 0) return Double.NaN;
+        return select(residuals, m, (m - 1) / 2) / MAD_TO_SIGMA;
+    }
+
+    // k-я порядковая статистика первых n элементов; массив переставляется
+    static double select(double[] a, int n, int k) {
+        int lo = 0, hi = n - 1;
+        while (lo < hi) {
+            double pivot = a[(lo + hi) >>> 1];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (a[i] < pivot) i++;
+                while (a[j] > pivot) j--;
+                if (i <= j) {
+                    double t = a[i];
+                    a[i] = a[j];
+                    a[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return a[k];
+            }
+        }
+        return a[k];
+    }
+
+    private static void checkWeights(PointSet points, double[] weights, boolean optional) {
+        if (weights == null) {
+            if (optional) return;
+            throw new IllegalArgumentException("Не заданы веса точек");
+        }
+        if (weights.length < points.size()) {
+            throw new IllegalArgumentException("Весов меньше, чем точек");
+        }
+        for (int i = 0; i < points.size(); i++) {
+            if (!(weights[i] >= 0) || Double.isInfinite(weights[i])) {
+                throw new IllegalArgumentException("Вес точки " + (i + 1) + " должен быть неотрицательным числом");
+            }
+        }
+    }
+}
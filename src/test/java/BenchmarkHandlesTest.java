@@ -0,0 +1,53 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Бенчмарки собираются только в профиле benchmarks, а методы приложения ищут по именам
+// через MethodHandle: переименование метода ломает их лишь при запуске
+// (ExceptionInInitializerError). Здесь AlgorithmHandles компилируется отдельно
+// и инициализируется, так что все поиски выполняются в обычной сборке.
+class BenchmarkHandlesTest {
+    private static final Path SOURCE = Paths.get("src", "jmh", "java", "benchmarks", "AlgorithmHandles.java");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void allHandlesResolve() throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeTrue(compiler != null, "Нужен JDK с javac");
+
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        int status = compiler.run(null, null, errors,
+                "-encoding", "UTF-8", "-classpath", System.getProperty("java.class.path"),
+                "-d", dir.toString(), SOURCE.toString());
+        assertEquals(0, status, errors.toString());
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, getClass().getClassLoader())) {
+            Class<?> handles = Class.forName("benchmarks.AlgorithmHandles", true, loader);
+            int count = 0;
+            for (Field field : handles.getDeclaredFields()) {
+                if (field.getType() != MethodHandle.class || !Modifier.isStatic(field.getModifiers())) continue;
+                field.setAccessible(true);
+                assertNotNull(field.get(null), field.getName());
+                count++;
+            }
+            assertTrue(count > 0);
+        }
+    }
+}
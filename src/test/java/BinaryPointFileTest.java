@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Двоичный файл должен возвращать те же числа и те же суммы, что были записаны
+class BinaryPointFileTest {
+    private static final double[] XS = {0, 1.5, -3e2, 1e-7, 1.7e9, 0.1, 123456.789012345};
+    private static final double[] YS = {2, -4.25, 1e22, 6.02214076e23, -0.0, 3.141592653589793, 7};
+
+    @TempDir
+    Path dir;
+
+    private static void assertPoints(PointSet points) {
+        assertEquals(XS.length, points.size());
+        assertArrayEquals(XS, Arrays.copyOf(points.getXs(), points.size()));
+        assertArrayEquals(YS, Arrays.copyOf(points.getYs(), points.size()));
+    }
+
+    @Test
+    void binaryRoundTrip() throws IOException {
+        Path file = dir.resolve("points.bin");
+        PointSet points = new PointSet(XS.clone(), YS.clone());
+        BinaryPointFile.write(file, points);
+
+        assertTrue(BinaryPointFile.isBinary(file));
+        BinaryPointFile binary = BinaryPointFile.open(file);
+        assertEquals(XS.length, binary.size());
+        assertEquals(-3e2, binary.getMinX());
+        assertEquals(1.7e9, binary.getMaxX());
+        assertPoints(binary.toPointSet());
+        assertPoints(PointFileLoader.load(file));
+
+        // Суммы из заголовка дают те же коэффициенты, что и новый проход
+        assertTrue(binary.hasStatistics());
+        assertArrayEquals(FitStatistics.of(points).coefficients(FunctionType.POLY2),
+                binary.getStatistics().coefficients(FunctionType.POLY2));
+    }
+
+    // Число точек, при котором count·8 переполняется до 8 байт, не должно пройти
+    // проверку длины файла
+    @Test
+    void overflowingCountIsRejected() throws IOException {
+        Path file = dir.resolve("corrupt.bin");
+        BinaryPointFile.write(file, new PointSet(XS.clone(), YS.clone()));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer count = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            count.putLong(0, (1L << 61) + 1);
+            // Сигнатура 8 байт, версия и флаги по 4
+            channel.write(count, 16);
+        }
+        IOException e = assertThrows(IOException.class, () -> BinaryPointFile.open(file));
+        assertTrue(e.getMessage().contains("обрезан"), e.getMessage());
+    }
+
+    // Показатели по файлу те же, что по точкам в памяти, включая число обусловленности
+    @Test
+    void binaryResultMatchesInMemory() throws IOException {
+        int n = 500;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = 0.02 * i;
+            ys[i] = 1 + xs[i] - 0.3 * xs[i] * xs[i] + Math.sin(7 * i) * 0.1;
+        }
+        PointSet points = new PointSet(xs, ys);
+        Path file = dir.resolve("poly.bin");
+        BinaryPointFile.write(file, points);
+
+        FitResult expected = FitResult.compute(FunctionType.POLY2, points);
+        FitResult actual = FitResult.compute(FunctionType.POLY2, BinaryPointFile.open(file));
+        assertEquals(expected.getDeviation(), actual.getDeviation(), expected.getDeviation() * 1e-9);
+        assertEquals(expected.getR2(), actual.getR2(), 1e-12);
+        assertFalse(Double.isNaN(actual.getConditionNumber()));
+        assertFalse(actual.isIllConditioned());
+    }
+}
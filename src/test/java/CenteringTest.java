@@ -0,0 +1,128 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Все пути подбора по суммам (FitStatistics, параллельный, блочный по файлу, BEST, пакет рядов)
+// должны совпадать с эталоном — центрированным QR — и на данных со смещением x.
+class CenteringTest {
+    // Больше одного блока ParallelAlgorithm, чтобы проверялось и слияние сумм
+    private static final int N = 100_000;
+    // Коэффициенты в степенях x при смещении 1e4 велики, и вычисление значения само
+    // теряет около шести знаков: сравнение отклонений — с таким допуском
+    private static final double TOLERANCE = 1e-4;
+
+    @TempDir
+    Path dir;
+
+    private static PointSet cubic(double offset) {
+        double[] xs = new double[N];
+        double[] ys = new double[N];
+        Random random = new Random(1);
+        for (int i = 0; i < N; i++) {
+            double t = 10.0 * i / N;
+            xs[i] = offset + 1 + t;
+            ys[i] = 1 + 2 * t - 0.5 * t * t + 0.05 * t * t * t + random.nextGaussian() * 0.1;
+        }
+        return new PointSet(xs, ys);
+    }
+
+    private static double deviation(FunctionType type, double[] coeffs, PointSet points) {
+        return FittedModel.of(type, coeffs).deviation(points);
+    }
+
+    private static void assertClose(double expected, double actual, String what) {
+        assertEquals(expected, actual, expected * TOLERANCE, what);
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0, 1e3, 1e4})
+    void polynomialPathsMatchQr(double offset) throws IOException {
+        PointSet points = cubic(offset);
+        double[] qr = new PolynomialSolver(PolynomialSolver.Method.QR, true).fit(points, 3).getCoefficients();
+        double expected = deviation(FunctionType.POLY3, qr, points);
+
+        FitStatistics stats = FitStatistics.of(points);
+        double[] c = stats.coefficients(FunctionType.POLY3);
+        assertClose(expected, deviation(FunctionType.POLY3, c, points), "FitStatistics");
+        assertClose(expected, stats.deviation(FunctionType.POLY3, c, model -> model.deviation(points)), "моменты");
+
+        double[] parallel = new ParallelAlgorithm().approximate(FunctionType.POLY3, points);
+        assertClose(expected, deviation(FunctionType.POLY3, parallel, points), "ParallelAlgorithm");
+
+        Path file = dir.resolve("points.bin");
+        BinaryPointFile.write(file, points);
+        FittedModel chunked = ChunkedAlgorithm.fit(FunctionType.POLY3, BinaryPointFile.open(file));
+        assertClose(expected, chunked.deviation(points), "ChunkedAlgorithm");
+
+        FittedModel best = Algorithm.fitBest(stats, points);
+        assertTrue(best.deviation(points) <= expected * (1 + TOLERANCE), "BEST хуже POLY3: " + best.getType());
+
+        double[] batch = new double[SeriesBatch.COEFFICIENT_STRIDE];
+        new SeriesBatch(points.getXs(), points.getYs(), new int[]{0, N})
+                .fit(FunctionType.POLY3, batch, new double[1], null);
+        assertClose(expected, deviation(FunctionType.POLY3, batch, points), "SeriesBatch");
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0, 1e3, 1e4})
+    void momentDeviationMatchesResidualPass(double offset) {
+        PointSet points = cubic(offset);
+        FitStatistics stats = FitStatistics.of(points);
+        for (FunctionType type : new FunctionType[]{FunctionType.LINEAR, FunctionType.POLY2, FunctionType.LOG}) {
+            double[] c = stats.coefficients(type);
+            double pass = deviation(type, c, points);
+            assertClose(pass, stats.deviation(type, c, model -> Double.NaN), type.name());
+        }
+    }
+
+    // На точной подгонке S = Σu² − 2·c·m + cᵀ·G·c — разность почти равных слагаемых:
+    // по моментам отклонение не определено, и считается проходом по остаткам
+    @Test
+    void exactFitFallsBackToResidualPass() {
+        double[] xs = new double[100];
+        double[] ys = new double[100];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = 1e3 + i;
+            ys[i] = 2 * xs[i] + 1;
+        }
+        PointSet points = new PointSet(xs, ys);
+        FitStatistics stats = FitStatistics.of(points);
+        double[] c = stats.coefficients(FunctionType.LINEAR);
+        assertTrue(Double.isNaN(stats.deviation(FunctionType.LINEAR, c)));
+        assertEquals(deviation(FunctionType.LINEAR, c, points),
+                stats.deviation(FunctionType.LINEAR, c, model -> model.deviation(points)));
+    }
+
+    // Метки времени: x ≈ 1.7e9, по суммам исходных x наклон и остаток теряются полностью
+    private static PointSet timestamps(int n, Random random) {
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = 1.7e9 + i;
+            ys[i] = 3 * i + random.nextGaussian() * 100;
+        }
+        return new PointSet(xs, ys);
+    }
+
+    @Test
+    void linearAtTimestampOffset() {
+        PointSet points = timestamps(1000, new Random(2));
+        FitStatistics stats = FitStatistics.of(points);
+        double[] c = stats.coefficients(FunctionType.LINEAR);
+        assertEquals(3, c[0], 0.05);
+
+        double pass = deviation(FunctionType.LINEAR, c, points);
+        assertTrue(pass > 1e6);
+        assertClose(pass, stats.deviation(FunctionType.LINEAR, c), "моменты");
+        double[] direct = Algorithm.approximate(FunctionType.LINEAR, points);
+        assertClose(pass, deviation(FunctionType.LINEAR, direct, points), "Algorithm");
+    }
+}
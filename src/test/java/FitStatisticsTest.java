@@ -0,0 +1,45 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FitStatisticsTest {
+    // Точки, которые нельзя прологарифмировать, не должны входить и в число точек системы:
+    // решение по всем точкам совпадает с решением только по пригодным
+    @Test
+    void logSpaceFitsCountOnlyUsablePoints() {
+        int n = 200;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        Random random = new Random(5);
+        for (int i = 0; i < n; i++) {
+            xs[i] = -1 + 10.0 * i / n;
+            ys[i] = i % 12 == 5 ? -1 : 2 * Math.exp(0.3 * xs[i]) * (1 + random.nextGaussian() * 0.05);
+        }
+        PointSet points = new PointSet(xs, ys);
+        FitStatistics all = FitStatistics.of(points);
+
+        assertFitMatches(all, points, FunctionType.EXP, (x, y) -> y > 0);
+        assertFitMatches(all, points, FunctionType.LOG, (x, y) -> x > 0);
+        assertFitMatches(all, points, FunctionType.POWER, (x, y) -> x > 0 && y > 0);
+    }
+
+    private interface PointFilter {
+        boolean test(double x, double y);
+    }
+
+    private static void assertFitMatches(FitStatistics all, PointSet points, FunctionType type, PointFilter filter) {
+        FitStatistics usable = new FitStatistics();
+        for (int i = 0; i < points.size(); i++) {
+            if (filter.test(points.getX(i), points.getY(i))) {
+                usable.add(points.getX(i), points.getY(i));
+            }
+        }
+        double[] expected = usable.coefficients(type);
+        double[] actual = all.coefficients(type);
+        for (int k = 0; k < expected.length; k++) {
+            assertEquals(expected[k], actual[k], Math.abs(expected[k]) * 1e-9, type.name() + "[" + k + "]");
+        }
+    }
+}
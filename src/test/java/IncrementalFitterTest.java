@@ -0,0 +1,107 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalFitterTest {
+    private static final double TOLERANCE = 1e-4;
+
+    // Метки времени растут без границ: после многих оборотов окна суммы должны
+    // оставаться около точек окна, а не около первой точки потока
+    @Test
+    void slidingWindowAtTimestampOffset() {
+        int window = 1000;
+        IncrementalFitter fitter = new IncrementalFitter(FunctionType.LINEAR, window);
+        Random random = new Random(3);
+        for (int i = 0; i < 5 * window + window / 2; i++) {
+            fitter.add(1.7e9 + i, 3 * i + random.nextGaussian() * 100);
+        }
+        PointSet windowPoints = fitter.copyWindow();
+        double[] c = fitter.getCoefficients();
+        assertEquals(3, c[0], 0.05);
+        double expected = FittedModel.of(FunctionType.LINEAR, c).deviation(windowPoints);
+        assertEquals(expected, fitter.getDeviation(), expected * TOLERANCE);
+        assertTrue(fitter.getR2() < 1);
+    }
+
+    // Вызывающий сам удаляет старые точки: сдвиг сумм должен идти за данными,
+    // хотя пересобрать суммы без окна не из чего
+    @Test
+    void callerManagedStreamAtTimestampOffset() {
+        int kept = 200;
+        IncrementalFitter fitter = new IncrementalFitter(FunctionType.POLY2);
+        double[] xs = new double[1000 * kept];
+        double[] ys = new double[xs.length];
+        Random random = new Random(4);
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = 1.7e9 + i;
+            ys[i] = 3 * i + random.nextGaussian() * 10;
+            fitter.add(xs[i], ys[i]);
+            if (i >= kept) {
+                fitter.remove(xs[i - kept], ys[i - kept]);
+            }
+        }
+        int from = xs.length - kept;
+        PointSet last = new PointSet(Arrays.copyOfRange(xs, from, xs.length), Arrays.copyOfRange(ys, from, ys.length));
+        double[] c = fitter.getCoefficients();
+        assertEquals(3, c[1] + 2 * c[2] * xs[xs.length - 1], 0.1);
+        double expected = FittedModel.of(FunctionType.POLY2, c).deviation(last);
+        assertEquals(expected, fitter.getDeviation(), expected * 1e-3);
+    }
+
+    // Без окна точную подгонку пересчитать нечем: остаток равен нулю, а не NaN
+    @Test
+    void exactFitWithoutWindow() {
+        IncrementalFitter fitter = new IncrementalFitter(FunctionType.LINEAR);
+        for (int i = 0; i < 100; i++) {
+            fitter.add(1e3 + i, 2 * (1e3 + i) + 1);
+        }
+        assertEquals(0, fitter.getDeviation());
+        assertEquals(1, fitter.getR2());
+    }
+
+    // Без окна EXP и POWER меряются в логарифмах
+    @Test
+    void logSpaceDeviationWithoutWindow() {
+        for (FunctionType type : new FunctionType[]{FunctionType.EXP, FunctionType.POWER}) {
+            IncrementalFitter fitter = new IncrementalFitter(type);
+            double[] xs = new double[200];
+            double[] ys = new double[200];
+            Random random = new Random(6);
+            for (int i = 0; i < xs.length; i++) {
+                xs[i] = 1 + i * 0.05;
+                ys[i] = 2 * Math.exp(0.3 * xs[i]) * Math.exp(random.nextGaussian() * 0.05);
+                fitter.add(xs[i], ys[i]);
+            }
+            FittedModel model = FittedModel.of(type, fitter.getCoefficients());
+            double expected = 0;
+            double sumLogY = 0;
+            double sumLogY2 = 0;
+            for (int i = 0; i < xs.length; i++) {
+                double residual = Math.log(ys[i]) - Math.log(model.evaluate(xs[i]));
+                expected += residual * residual;
+                sumLogY += Math.log(ys[i]);
+                sumLogY2 += Math.log(ys[i]) * Math.log(ys[i]);
+            }
+            double totalSS = sumLogY2 - sumLogY * sumLogY / xs.length;
+            assertEquals(expected, fitter.getDeviation(), expected * 1e-6, type.name());
+            assertEquals(1 - expected / totalSS, fitter.getR2(), 1e-6, type.name());
+        }
+    }
+
+    // Пустой подборщик — не ошибка: показателей просто нет
+    @Test
+    void emptyFitterGivesNaN() {
+        for (IncrementalFitter fitter : new IncrementalFitter[]{
+                new IncrementalFitter(FunctionType.LINEAR), new IncrementalFitter(FunctionType.LINEAR, 10)}) {
+            for (double c : fitter.getCoefficients()) {
+                assertTrue(Double.isNaN(c));
+            }
+            assertTrue(Double.isNaN(fitter.getDeviation()));
+            assertTrue(Double.isNaN(fitter.getR2()));
+        }
+    }
+}
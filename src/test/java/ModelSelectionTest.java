@@ -0,0 +1,66 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// PRESS по диагонали матрицы проекции должен совпадать со скользящим контролем,
+// в котором модель честно переобучается n раз без одной точки.
+class ModelSelectionTest {
+    private static final int N = 40;
+
+    private static PointSet points(double offset) {
+        double[] xs = new double[N];
+        double[] ys = new double[N];
+        Random random = new Random(7);
+        for (int i = 0; i < N; i++) {
+            double t = 4.0 * i / N;
+            xs[i] = offset + 1 + t;
+            ys[i] = 2 + Math.log(xs[i]) + 0.3 * t * t + random.nextGaussian() * 0.2;
+        }
+        return new PointSet(xs, ys);
+    }
+
+    private static PointSet without(PointSet points, int skipped) {
+        int n = points.size();
+        double[] xs = new double[n - 1];
+        double[] ys = new double[n - 1];
+        for (int i = 0, j = 0; i < n; i++) {
+            if (i == skipped) continue;
+            xs[j] = points.getX(i);
+            ys[j] = points.getY(i);
+            j++;
+        }
+        return new PointSet(xs, ys);
+    }
+
+    private static double leaveOneOut(FunctionType type, PointSet points) {
+        double sum = 0;
+        for (int i = 0; i < points.size(); i++) {
+            FittedModel model = FittedModel.of(type, Algorithm.approximate(type, without(points, i)));
+            double residual = points.getY(i) - model.evaluate(points.getX(i));
+            sum += residual * residual;
+        }
+        return sum;
+    }
+
+    private static void assertPress(double offset) {
+        PointSet points = points(offset);
+        ModelSelection selection = ModelSelection.of(points);
+        for (FunctionType type : new FunctionType[]{FunctionType.LINEAR, FunctionType.POLY2,
+                FunctionType.POLY3, FunctionType.LOG}) {
+            double expected = leaveOneOut(type, points);
+            assertEquals(expected, selection.crossValidation(type), expected * 1e-6, type.name());
+        }
+    }
+
+    @Test
+    void pressMatchesBruteForceLeaveOneOut() {
+        assertPress(0);
+    }
+
+    @Test
+    void pressMatchesBruteForceLeaveOneOutWithOffset() {
+        assertPress(1e3);
+    }
+}
@@ -0,0 +1,46 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Разбор текста должен возвращать те же числа, что были записаны, при любых разделителях
+class PointFileLoaderTest {
+    private static final double[] XS = {0, 1.5, -3e2, 1e-7, 1.7e9, 0.1, 123456.789012345};
+    private static final double[] YS = {2, -4.25, 1e22, 6.02214076e23, -0.0, 3.141592653589793, 7};
+
+    @TempDir
+    Path dir;
+
+    private static void assertPoints(PointSet points) {
+        assertEquals(XS.length, points.size());
+        assertArrayEquals(XS, Arrays.copyOf(points.getXs(), points.size()));
+        assertArrayEquals(YS, Arrays.copyOf(points.getYs(), points.size()));
+    }
+
+    @Test
+    void textRoundTrip() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < XS.length; i++) {
+            text.append(XS[i]).append(i % 2 == 0 ? ", " : "\t").append(YS[i]).append('\n');
+        }
+        Path file = dir.resolve("points.txt");
+        Files.writeString(file, text);
+
+        assertPoints(PointFileLoader.load(file));
+        assertEquals(3, PointFileLoader.load(file, 3).size());
+    }
+
+    @Test
+    void textWithOddCountIsRejected() throws IOException {
+        Path file = dir.resolve("odd.txt");
+        Files.writeString(file, "1 2 3");
+        assertThrows(IOException.class, () -> PointFileLoader.load(file));
+    }
+}
@@ -0,0 +1,55 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Обе формы тела запроса должны возвращать те же числа, что были записаны
+class PointJsonReaderTest {
+    private static final double[] XS = {0, 1.5, -3e2, 1e-7, 1.7e9, 0.1, 123456.789012345};
+    private static final double[] YS = {2, -4.25, 1e22, 6.02214076e23, -0.0, 3.141592653589793, 7};
+
+    private static void assertPoints(PointSet points) {
+        assertEquals(XS.length, points.size());
+        assertArrayEquals(XS, Arrays.copyOf(points.getXs(), points.size()));
+        assertArrayEquals(YS, Arrays.copyOf(points.getYs(), points.size()));
+    }
+
+    private static PointSet read(String json) throws IOException {
+        return PointJsonReader.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 0);
+    }
+
+    @Test
+    void jsonRoundTrip() throws IOException {
+        StringBuilder columns = new StringBuilder("{\"name\": \"test\", \"x\": [");
+        StringBuilder pairs = new StringBuilder("{\"points\": [");
+        for (int i = 0; i < XS.length; i++) {
+            if (i > 0) {
+                columns.append(", ");
+                pairs.append(", ");
+            }
+            columns.append(XS[i]);
+            pairs.append('[').append(XS[i]).append(", ").append(YS[i]).append(']');
+        }
+        columns.append("], \"y\": [");
+        for (int i = 0; i < YS.length; i++) {
+            if (i > 0) columns.append(',');
+            columns.append(YS[i]);
+        }
+        columns.append("]}");
+        pairs.append("]}");
+
+        assertPoints(read(columns.toString()));
+        assertPoints(read(pairs.toString()));
+    }
+
+    @Test
+    void mismatchedColumnsAreRejected() {
+        assertThrows(IOException.class, () -> read("{\"x\": [1, 2], \"y\": [1]}"));
+    }
+}
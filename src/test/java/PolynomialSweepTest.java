@@ -0,0 +1,56 @@
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Перебор степеней по общим суммам должен давать то же, что отдельный центрированный QR
+// для каждой степени, и на данных со смещением x
+class PolynomialSweepTest {
+    private static final int N = 10_000;
+    // Коэффициенты в степенях x при смещении 1e4 велики, и вычисление значения само
+    // теряет около шести знаков: сравнение отклонений — с таким допуском
+    private static final double TOLERANCE = 1e-4;
+
+    private static PointSet cubic(double offset) {
+        double[] xs = new double[N];
+        double[] ys = new double[N];
+        Random random = new Random(1);
+        for (int i = 0; i < N; i++) {
+            double t = 10.0 * i / N;
+            xs[i] = offset + 1 + t;
+            ys[i] = 1 + 2 * t - 0.5 * t * t + 0.05 * t * t * t + random.nextGaussian() * 0.1;
+        }
+        return new PointSet(xs, ys);
+    }
+
+    // Сумма квадратов отклонений полинома по возрастанию степеней
+    private static double deviation(double[] c, PointSet points) {
+        double sum = 0;
+        for (int i = 0; i < points.size(); i++) {
+            double value = 0;
+            for (int k = c.length - 1; k >= 0; k--) {
+                value = value * points.getX(i) + c[k];
+            }
+            double residual = points.getY(i) - value;
+            sum += residual * residual;
+        }
+        return sum;
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0, 1e3, 1e4})
+    void sweepMatchesQr(double offset) {
+        PointSet points = cubic(offset);
+        PolynomialSolver qr = new PolynomialSolver(PolynomialSolver.Method.QR, true);
+        PolynomialSweep sweep = PolynomialSweep.of(points, 3);
+        for (int degree = 1; degree <= 3; degree++) {
+            double expected = deviation(qr.fit(points, degree).getCoefficients(), points);
+            double actual = deviation(sweep.coefficients(degree), points);
+            assertEquals(expected, actual, expected * TOLERANCE, "степень " + degree);
+            assertEquals(expected, sweep.deviation(degree), expected * TOLERANCE, "отклонение степени " + degree);
+        }
+        assertEquals(3, sweep.bestDegree());
+    }
+}
@@ -0,0 +1,31 @@
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Итерации IRLS решаются в одном центрированном базисе: выбросы должны отбрасываться
+// и на данных со смещением x
+class WeightedAlgorithmTest {
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0, 1e6})
+    void robustPolynomialIgnoresOutliers(double offset) {
+        int n = 2000;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        Random random = new Random(7);
+        for (int i = 0; i < n; i++) {
+            double t = 10.0 * i / n;
+            xs[i] = offset + t;
+            ys[i] = 1 + 2 * t - 0.5 * t * t + random.nextGaussian() * 0.1 + (i % 10 == 3 ? 50 : 0);
+        }
+        PointSet points = new PointSet(xs, ys);
+        FittedModel model = FittedModel.of(FunctionType.POLY2,
+                WeightedAlgorithm.approximateRobust(FunctionType.POLY2, points, null, RobustLoss.TUKEY));
+        for (double t = 0; t <= 10; t += 2.5) {
+            assertEquals(1 + 2 * t - 0.5 * t * t, model.evaluate(offset + t), 0.05, "t = " + t);
+        }
+    }
+}